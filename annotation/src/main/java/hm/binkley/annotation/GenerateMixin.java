@@ -0,0 +1,63 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+
+package hm.binkley.annotation;
+
+import hm.binkley.annotation.processing.GenerateMixinProcessor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+/**
+ * {@code GenerateMixin} marks a top-level interface for a mixin class
+ * generated at compile time by {@link GenerateMixinProcessor}.  For
+ * interface {@code Foo} the processor writes {@code FooMixin} in the same
+ * package, with a constructor taking the delegates in the order of {@link
+ * #value()}.  Creating mixins then needs neither reflection nor generated
+ * bytecode at runtime.
+ * <p>
+ * Methods go to delegates as for {@code hm.binkley.util.Mixin}: first to a
+ * delegate of the declaring type; then to a delegate with a public method of
+ * the same name and parameter types and a compatible return type.  Earlier
+ * delegates win, and default methods without a delegate keep the default.
+ * Unlike runtime mixins, delegates match by their declared types rather
+ * than their classes, and a method without a delegate fails compilation.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+@Documented
+@Retention(SOURCE)
+@Target(TYPE)
+public @interface GenerateMixin {
+    /** The delegate types in lookup order, never empty. */
+    Class<?>[] value();
+}
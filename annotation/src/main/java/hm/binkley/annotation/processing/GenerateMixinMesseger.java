@@ -0,0 +1,61 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+
+package hm.binkley.annotation.processing;
+
+import hm.binkley.annotation.GenerateMixin;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+
+/**
+ * {@code GenerateMixinMesseger} reports on {@link GenerateMixin} processing.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class GenerateMixinMesseger
+        extends SingleAnnotationMessager<GenerateMixin, GenerateMixinMesseger> {
+    static GenerateMixinMesseger from(final Messager messager,
+            final Element element) {
+        return new GenerateMixinMesseger(messager, element, null, null);
+    }
+
+    private GenerateMixinMesseger(final Messager messager,
+            final Element element, final AnnotationMirror mirror,
+            final AnnotationValue value) {
+        super(GenerateMixin.class, messager, element, mirror, value);
+    }
+
+    @Override
+    public GenerateMixinMesseger withAnnotation(final AnnotationMirror mirror,
+            final AnnotationValue value) {
+        return new GenerateMixinMesseger(messager, element, mirror, value);
+    }
+}
@@ -0,0 +1,502 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+
+package hm.binkley.annotation.processing;
+
+import hm.binkley.annotation.GenerateMixin;
+import hm.binkley.util.Bug;
+import org.kohsuke.MetaInfServices;
+
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.MirroredTypesException;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import static javax.lang.model.SourceVersion.RELEASE_8;
+import static javax.lang.model.element.ElementKind.INTERFACE;
+import static javax.lang.model.element.ElementKind.PACKAGE;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+import static javax.lang.model.type.TypeKind.DECLARED;
+import static javax.lang.model.type.TypeKind.VOID;
+import static javax.lang.model.util.ElementFilter.methodsIn;
+
+/**
+ * {@code GenerateMixinProcessor} generates mixin classes for interfaces
+ * annotated with {@link GenerateMixin}.  Each generated class holds its
+ * delegates in fields, and implements each interface method with a direct
+ * call to the delegate chosen for it when compiling.
+ * <p>
+ * A generic delegate type which is also a supertype of the interface takes
+ * the type arguments of the interface; other generic delegate types are
+ * raw.  When the interface extends {@code hm.binkley.util.Mixin} and no
+ * delegate provides {@code mixinDelegates()}, the generated class provides
+ * it, listing the delegates followed by the mixin.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+@MetaInfServices(Processor.class)
+@SupportedAnnotationTypes("hm.binkley.annotation.GenerateMixin")
+@SupportedSourceVersion(RELEASE_8)
+public final class GenerateMixinProcessor
+        extends
+        SingleAnnotationProcessor<GenerateMixin, GenerateMixinMesseger> {
+    private static final String MIXIN = "hm.binkley.util.Mixin";
+
+    public GenerateMixinProcessor() {
+        super(GenerateMixin.class);
+    }
+
+    @Override
+    protected GenerateMixinMesseger newMesseger(
+            final Class<GenerateMixin> annoType, final Messager messager,
+            final Element element) {
+        return GenerateMixinMesseger.from(messager, element);
+    }
+
+    @Override
+    protected String withAnnotationValue() {
+        return "value";
+    }
+
+    @Override
+    protected boolean preValidate(final Element element,
+            final GenerateMixin anno) {
+        if (INTERFACE != element.getKind()) {
+            out.error("%@ only supported on interfaces");
+            return false;
+        }
+        if (PACKAGE != element.getEnclosingElement().getKind()) {
+            out.error("%@ only supported on top-level interfaces");
+            return false;
+        }
+        if (!((TypeElement) element).getTypeParameters().isEmpty()) {
+            out.error("%@ not supported on generic interfaces");
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    protected void process(final Element element, final GenerateMixin anno) {
+        final TypeElement as = (TypeElement) element;
+        final List<DeclaredType> delegates = delegates(as, anno);
+        if (null == delegates)
+            return;
+
+        final List<Method> methods = new ArrayList<>();
+        boolean valid = true;
+        for (final ExecutableElement method : methods(as)) {
+            final List<ExecutableElement> undeclared = new ArrayList<>();
+            final int index = match(as, method, delegates, undeclared);
+            if (-1 != index)
+                methods.add(new Method(method, index));
+            else if (isMixinDelegates(method))
+                methods.add(new Method(method, -1));
+            else if (!method.isDefault()) {
+                if (undeclared.isEmpty())
+                    out.error("%@ has no delegate for '%s'", method);
+                else
+                    out.error(
+                            "%@ has no delegate for '%s': %s throw checked exceptions it does not declare",
+                            method, undeclared);
+                valid = false;
+            }
+        }
+        if (!valid)
+            return;
+
+        final Names names = Names.from(processingEnv.getElementUtils()
+                        .getPackageOf(as).getQualifiedName(),
+                as.getSimpleName() + "Mixin");
+        try (final PrintWriter source = new PrintWriter(
+                processingEnv.getFiler().createSourceFile(names.fullName, as)
+                        .openWriter())) {
+            generate(source, names, as, delegates, methods);
+            if (source.checkError())
+                throw new IOException("Cannot write " + names);
+        } catch (final IOException e) {
+            out.error(e, "Cannot generate %s", names);
+            return;
+        }
+
+        out.note("Generated %s.java", names);
+    }
+
+    /**
+     * Reads the delegate types of <var>anno</var>, not yet loaded as
+     * classes while compiling.  Generic delegates the interface extends take
+     * the type arguments of the interface.
+     */
+    private List<DeclaredType> delegates(final TypeElement as,
+            final GenerateMixin anno) {
+        final List<? extends TypeMirror> values;
+        try {
+            anno.value();
+            throw new Bug("Delegate classes loaded at compile time");
+        } catch (final MirroredTypesException e) {
+            values = e.getTypeMirrors();
+        }
+        if (values.isEmpty()) {
+            out.error("%@ needs at least one delegate");
+            return null;
+        }
+
+        final Types types = processingEnv.getTypeUtils();
+        final List<DeclaredType> delegates = new ArrayList<>(values.size());
+        for (final TypeMirror value : values) {
+            if (DECLARED != value.getKind()) {
+                out.error("%@ only supports class or interface delegates: %s",
+                        value);
+                return null;
+            }
+            final DeclaredType supertype = supertype(as.asType(),
+                    types.erasure(value));
+            delegates.add(null == supertype ? (DeclaredType) value : supertype);
+        }
+        return delegates;
+    }
+
+    /** Finds the supertype of <var>type</var> with erasure <var>raw</var>. */
+    private DeclaredType supertype(final TypeMirror type,
+            final TypeMirror raw) {
+        final Types types = processingEnv.getTypeUtils();
+        for (final TypeMirror supertype : types.directSupertypes(type)) {
+            if (types.isSameType(raw, types.erasure(supertype)))
+                return (DeclaredType) supertype;
+            final DeclaredType found = supertype(supertype, raw);
+            if (null != found)
+                return found;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the methods a mixin of <var>as</var> implements: those of the
+     * interface, and the {@code equals}, {@code hashCode} and {@code
+     * toString} of {@code Object} as with proxies.  Keeps the first of
+     * methods with the same erased signature.
+     */
+    private List<ExecutableElement> methods(final TypeElement as) {
+        final Elements elements = processingEnv.getElementUtils();
+        final Map<String, ExecutableElement> methods = new LinkedHashMap<>();
+        for (final ExecutableElement method : methodsIn(
+                elements.getAllMembers(as)))
+            if (INTERFACE == method.getEnclosingElement().getKind()
+                    && !method.getModifiers().contains(STATIC)
+                    && !method.getModifiers().contains(PRIVATE))
+                methods.putIfAbsent(signature(method), method);
+        for (final ExecutableElement method : methodsIn(elements
+                .getAllMembers(elements.getTypeElement("java.lang.Object"))))
+            switch (method.getSimpleName().toString()) {
+            case "equals":
+            case "hashCode":
+            case "toString":
+                methods.putIfAbsent(signature(method), method);
+            }
+        return new ArrayList<>(methods.values());
+    }
+
+    private String signature(final ExecutableElement method) {
+        final Types types = processingEnv.getTypeUtils();
+        final StringJoiner signature = new StringJoiner(",",
+                method.getSimpleName() + "(", ")");
+        for (final VariableElement parameter : method.getParameters())
+            signature.add(types.erasure(parameter.asType()).toString());
+        return signature.toString();
+    }
+
+    /**
+     * Finds the delegate implementing <var>method</var> as does {@code
+     * MixinHandler}: first by static typing, then by duck typing.  Raw
+     * delegates return erased types, so checks return types for both.  Unlike
+     * proxies, which throw checked exceptions sneakily, rejects duck matches
+     * throwing checked exceptions <var>method</var> does not declare, and
+     * adds them to <var>undeclared</var>.
+     *
+     * @return the delegate index, or -1 if none
+     */
+    private int match(final TypeElement as, final ExecutableElement method,
+            final List<DeclaredType> delegates,
+            final List<ExecutableElement> undeclared) {
+        final Types types = processingEnv.getTypeUtils();
+        final ExecutableType type = memberOf(as.asType(), method);
+        final TypeMirror declaring = types
+                .erasure(method.getEnclosingElement().asType());
+        for (int i = 0; i < delegates.size(); ++i)
+            if (types.isAssignable(types.erasure(delegates.get(i)), declaring)
+                    && returns(method, type,
+                    memberOf(delegates.get(i), method)))
+                return i;
+
+        for (int i = 0; i < delegates.size(); ++i) {
+            final ExecutableElement quack = publicMethod(delegates.get(i),
+                    type, method);
+            if (null == quack)
+                continue;
+            final ExecutableType quackType = memberOf(delegates.get(i), quack);
+            if (!returns(method, type, quackType))
+                continue;
+            if (declares(method, type, quackType))
+                return i;
+            undeclared.add(quack);
+        }
+        return -1;
+    }
+
+    private ExecutableElement publicMethod(final DeclaredType delegate,
+            final ExecutableType type, final ExecutableElement method) {
+        final Types types = processingEnv.getTypeUtils();
+        final List<? extends TypeMirror> parameterTypes = type
+                .getParameterTypes();
+        CANDIDATE:
+        for (final ExecutableElement candidate : methodsIn(
+                processingEnv.getElementUtils().getAllMembers(
+                        (TypeElement) delegate.asElement()))) {
+            if (!candidate.getSimpleName().equals(method.getSimpleName())
+                    || !candidate.getModifiers().contains(PUBLIC)
+                    || candidate.getModifiers().contains(STATIC))
+                continue;
+            final List<? extends TypeMirror> candidateTypes = memberOf(
+                    delegate, candidate).getParameterTypes();
+            if (candidateTypes.size() != parameterTypes.size())
+                continue;
+            for (int i = 0; i < parameterTypes.size(); ++i)
+                if (!types.isSameType(types.erasure(parameterTypes.get(i)),
+                        types.erasure(candidateTypes.get(i))))
+                    continue CANDIDATE;
+            return candidate;
+        }
+        return null;
+    }
+
+    /**
+     * Checks the return type of <var>quack</var> against that of
+     * <var>method</var>.  Each generic method has its own type variables, so
+     * compares those as erased.
+     */
+    private boolean returns(final ExecutableElement method,
+            final ExecutableType type, final ExecutableType quack) {
+        final Types types = processingEnv.getTypeUtils();
+        final TypeMirror returnType = type.getReturnType();
+        final TypeMirror quackType = quack.getReturnType();
+        if (VOID == returnType.getKind() || VOID == quackType.getKind())
+            return returnType.getKind() == quackType.getKind();
+        if (method.getTypeParameters().isEmpty())
+            return types.isAssignable(quackType, returnType);
+        return types.isAssignable(types.erasure(quackType),
+                types.erasure(returnType));
+    }
+
+    /**
+     * Checks that <var>method</var> declares the checked exceptions of
+     * <var>quack</var>.  Compares as erased for generic methods, as with
+     * return types.
+     */
+    private boolean declares(final ExecutableElement method,
+            final ExecutableType type, final ExecutableType quack) {
+        final Types types = processingEnv.getTypeUtils();
+        final Elements elements = processingEnv.getElementUtils();
+        final TypeMirror runtimeException = elements
+                .getTypeElement("java.lang.RuntimeException").asType();
+        final TypeMirror error = elements.getTypeElement("java.lang.Error")
+                .asType();
+        final boolean generic = !method.getTypeParameters().isEmpty();
+        THROWN:
+        for (final TypeMirror thrown : quack.getThrownTypes()) {
+            final TypeMirror quackThrown = generic ? types.erasure(thrown)
+                    : thrown;
+            if (types.isSubtype(quackThrown, runtimeException)
+                    || types.isSubtype(quackThrown, error))
+                continue;
+            for (final TypeMirror declared : type.getThrownTypes())
+                if (types.isSubtype(quackThrown,
+                        generic ? types.erasure(declared) : declared))
+                    continue THROWN;
+            return false;
+        }
+        return true;
+    }
+
+    private ExecutableType memberOf(final TypeMirror type,
+            final ExecutableElement method) {
+        return (ExecutableType) processingEnv.getTypeUtils()
+                .asMemberOf((DeclaredType) type, method);
+    }
+
+    private static boolean isRaw(final DeclaredType type) {
+        return type.getTypeArguments().isEmpty()
+                && !((TypeElement) type.asElement()).getTypeParameters()
+                .isEmpty();
+    }
+
+    private boolean isMixinDelegates(final ExecutableElement method) {
+        return method.getSimpleName().contentEquals("mixinDelegates")
+                && ((TypeElement) method.getEnclosingElement())
+                .getQualifiedName().contentEquals(MIXIN);
+    }
+
+    private void generate(final PrintWriter source, final Names names,
+            final TypeElement as, final List<DeclaredType> delegates,
+            final List<Method> methods) {
+        final boolean mixinDelegates = methods.stream()
+                .anyMatch(method -> -1 == method.index);
+        final String visibility = as.getModifiers().contains(PUBLIC)
+                ? "public " : "";
+
+        if (!names.packaj.isEmpty())
+            source.printf("package %s;%n%n", names.packaj);
+        // Not javax.annotation.Generated, missing from later JDKs
+        source.printf("/** Generated by {@code %s}. */%n",
+                getClass().getName());
+        if (delegates.stream().anyMatch(GenerateMixinProcessor::isRaw))
+            source.printf(
+                    "@SuppressWarnings({\"unchecked\", \"rawtypes\"})%n");
+        source.printf("%sfinal class %s%n", visibility, names.name);
+        source.printf("        implements %s {%n", as.getQualifiedName());
+        for (int i = 0; i < delegates.size(); ++i)
+            source.printf("    private final %s delegate%d;%n",
+                    delegates.get(i), i);
+        if (mixinDelegates)
+            source.printf(
+                    "    private final java.util.List<Object> mixinDelegates;%n");
+        source.println();
+
+        final StringJoiner parameters = new StringJoiner(", ");
+        for (int i = 0; i < delegates.size(); ++i)
+            parameters.add(
+                    String.format("final %s delegate%d", delegates.get(i), i));
+        source.printf("    %s%s(%s) {%n", visibility, names.name, parameters);
+        final StringJoiner fields = new StringJoiner(", ");
+        for (int i = 0; i < delegates.size(); ++i) {
+            source.printf(
+                    "        this.delegate%d = java.util.Objects.requireNonNull(delegate%1$d, \"delegate%1$d\");%n",
+                    i);
+            fields.add("delegate" + i);
+        }
+        if (mixinDelegates)
+            source.printf(
+                    "        this.mixinDelegates = java.util.Collections.unmodifiableList(java.util.Arrays.<Object>asList(%s, this));%n",
+                    fields);
+        source.printf("    }%n");
+
+        for (final Method method : methods)
+            method(source, as, method);
+        source.printf("}%n");
+    }
+
+    private void method(final PrintWriter source, final TypeElement as,
+            final Method method) {
+        final ExecutableElement element = method.element;
+        final ExecutableType type = memberOf(as.asType(), element);
+        final String name = element.getSimpleName().toString();
+
+        final StringJoiner typeParameters = new StringJoiner(", ", "<", "> ")
+                .setEmptyValue("");
+        for (final TypeParameterElement typeParameter : element
+                .getTypeParameters()) {
+            final StringJoiner bounds = new StringJoiner(" & ", " extends ",
+                    "").setEmptyValue("");
+            for (final TypeMirror bound : typeParameter.getBounds())
+                if (!"java.lang.Object".equals(bound.toString()))
+                    bounds.add(bound.toString());
+            typeParameters.add(typeParameter.getSimpleName() + bounds.toString());
+        }
+
+        final List<? extends VariableElement> parameters = element
+                .getParameters();
+        final List<? extends TypeMirror> parameterTypes = type
+                .getParameterTypes();
+        final StringJoiner declared = new StringJoiner(", ");
+        final StringJoiner arguments = new StringJoiner(", ");
+        for (int i = 0; i < parameters.size(); ++i) {
+            final TypeMirror parameterType = parameterTypes.get(i);
+            final String parameterName = parameters.get(i).getSimpleName()
+                    .toString();
+            declared.add(element.isVarArgs() && i == parameters.size() - 1
+                    ? String.format("final %s... %s",
+                    ((ArrayType) parameterType).getComponentType(),
+                    parameterName)
+                    : String.format("final %s %s", parameterType,
+                            parameterName));
+            arguments.add(parameterName);
+        }
+
+        final StringJoiner thrown = new StringJoiner(", ", " throws ", "")
+                .setEmptyValue("");
+        for (final TypeMirror thrownType : type.getThrownTypes())
+            thrown.add(thrownType.toString());
+
+        source.println();
+        source.printf("    @Override%n");
+        source.printf("    public %s%s %s(%s)%s {%n", typeParameters,
+                type.getReturnType(), name, declared, thrown);
+        final String returns = VOID == type.getReturnType().getKind()
+                ? "" : "return ";
+        if (-1 == method.index)
+            source.printf("        %sthis.mixinDelegates;%n", returns);
+        else
+            source.printf("        %sthis.delegate%d.%s(%s);%n", returns,
+                    method.index, name, arguments);
+        source.printf("    }%n");
+    }
+
+    /**
+     * A generated method and the index of its delegate, -1 for {@code
+     * mixinDelegates()}.
+     */
+    private static final class Method {
+        private final ExecutableElement element;
+        private final int index;
+
+        private Method(final ExecutableElement element, final int index) {
+            this.element = element;
+            this.index = index;
+        }
+    }
+}
@@ -111,7 +111,7 @@ public abstract class SingleAnnotationProcessor<A extends Annotation, M extends
 
                 process(element, anno);
 
-                if (postValidate(element, anno))
+                if (!postValidate(element, anno))
                     return false;
             } catch (final Exception e) {
                 out.error(e, "Cannot process %@ on '%s'", element);
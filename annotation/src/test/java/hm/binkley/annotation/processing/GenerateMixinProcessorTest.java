@@ -0,0 +1,180 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+
+package hm.binkley.annotation.processing;
+
+import hm.binkley.annotation.GenerateMixin;
+import hm.binkley.annotation.processing.MixinTesty.Greeter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static hm.binkley.util.Mixin.newMixin;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static javax.tools.Diagnostic.Kind.ERROR;
+import static javax.tools.ToolProvider.getSystemJavaCompiler;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@code GenerateMixinProcessorTest} tests {@link GenerateMixinProcessor}
+ * with the mixin generated for {@link MixinTesty}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public class GenerateMixinProcessorTest {
+    @Rule
+    public final TemporaryFolder generated = new TemporaryFolder();
+
+    private Greeter greeter;
+    private AtomicInteger counter;
+    private Supplier<String> supplier;
+    private MixinTesty mixin;
+
+    @Before
+    public void setUp() {
+        greeter = name -> "Hello, " + name;
+        counter = new AtomicInteger();
+        supplier = () -> "Bob";
+        mixin = new MixinTestyMixin(greeter, counter, supplier);
+    }
+
+    @Test
+    public void shouldDelegateByDuckTyping() {
+        assertThat(mixin.greet("Bob"), is(equalTo("Hello, Bob")));
+    }
+
+    @Test
+    public void shouldDelegateToClass() {
+        mixin.incrementAndGet();
+
+        assertThat(mixin.incrementAndGet(), is(equalTo(2)));
+    }
+
+    @Test
+    public void shouldDelegateByStaticTyping() {
+        assertThat(mixin.get(), is(equalTo("Bob")));
+    }
+
+    @Test
+    public void shouldKeepDefaultMethods() {
+        assertThat(mixin.shout("Bob"), is(equalTo("HELLO, BOB")));
+    }
+
+    @Test
+    public void shouldDelegateObjectMethodsToFirstDelegate() {
+        assertThat(mixin.toString(), is(equalTo(greeter.toString())));
+    }
+
+    @Test
+    public void shouldListMixinDelegates() {
+        // Mixin equals goes to the first delegate, so skip the mixin itself
+        assertThat(mixin.mixinDelegates().subList(0, 3),
+                is(equalTo(asList(greeter, counter, supplier))));
+    }
+
+    @Test
+    public void shouldMatchRuntimeMixin() {
+        final MixinTesty proxy = newMixin(MixinTesty.class, greeter,
+                new AtomicInteger(), supplier);
+
+        assertThat(mixin.greet("Bob"), is(equalTo(proxy.greet("Bob"))));
+        assertThat(mixin.get(), is(equalTo(proxy.get())));
+    }
+
+    @Test
+    public void shouldAcceptDuckThrowingDeclaredExceptions()
+            throws IOException {
+        assertThat(errors("java.io.IOException",
+                "java.io.FileNotFoundException"), is(empty()));
+    }
+
+    @Test
+    public void shouldRejectDuckThrowingUndeclaredExceptions()
+            throws IOException {
+        assertThat(errors("java.io.IOException", "Exception"),
+                contains(containsString("throw checked exceptions")));
+    }
+
+    @Test
+    public void shouldRejectRawDelegateReturningErasedType()
+            throws IOException {
+        assertThat(errors("@hm.binkley.annotation.GenerateMixin(Box.class)\n"
+                        + "interface Boxed extends Getter<String> { }\n"
+                        + "interface Getter<T> { T get(); }\n"
+                        + "class Box<T> implements Getter<T> {\n"
+                        + "    public T get() { return null; } }\n"),
+                contains(containsString("no delegate for 'get()'")));
+    }
+
+    /**
+     * Generates a mixin with a delegate method throwing <var>thrown</var>
+     * for an interface method declaring <var>declared</var>.
+     */
+    private List<String> errors(final String declared, final String thrown)
+            throws IOException {
+        return errors("@hm.binkley.annotation.GenerateMixin(Reader.class)\n"
+                + "interface Reading { String read() throws " + declared
+                + "; }\n" + "class Reader { public String read() throws "
+                + thrown + " { return null; } }\n");
+    }
+
+    private List<String> errors(final String code)
+            throws IOException {
+        final DiagnosticCollector<JavaFileObject> diagnostics
+                = new DiagnosticCollector<>();
+        final String classpath = GenerateMixin.class.getProtectionDomain()
+                .getCodeSource().getLocation().getPath();
+        final CompilationTask task = getSystemJavaCompiler()
+                .getTask(null, null, diagnostics,
+                        asList("-proc:only", "-classpath", classpath, "-s",
+                                generated.newFolder().getPath()), null,
+                        singletonList(new StringSource("Mixed", code)));
+        task.setProcessors(singletonList(new GenerateMixinProcessor()));
+        task.call();
+        return diagnostics.getDiagnostics().stream().
+                filter(diagnostic -> ERROR == diagnostic.getKind()).
+                map(diagnostic -> diagnostic.getMessage(null)).
+                collect(toList());
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+
+package hm.binkley.annotation.processing;
+
+import org.junit.Test;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.tools.JavaCompiler.CompilationTask;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static javax.tools.ToolProvider.getSystemJavaCompiler;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@code SingleAnnotationProcessorTest} tests {@link
+ * SingleAnnotationProcessor}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class SingleAnnotationProcessorTest {
+    @Test
+    public void shouldProcessEveryElementInRound() {
+        final DeprecatedProcessor processor = new DeprecatedProcessor();
+        final CompilationTask task = getSystemJavaCompiler()
+                .getTask(null, null, null, singletonList("-proc:only"), null,
+                        singletonList(new StringSource("Old",
+                                "@Deprecated class Old {}\n"
+                                        + "@Deprecated class Older {}\n")));
+        task.setProcessors(singletonList(processor));
+
+        assertThat(task.call(), is(true));
+        assertThat(processor.processed, is(equalTo(asList("Old", "Older"))));
+    }
+
+    private static final class DeprecatedProcessor
+            extends
+            SingleAnnotationProcessor<Deprecated, DeprecatedMesseger> {
+        private final List<String> processed = new ArrayList<>();
+
+        private DeprecatedProcessor() {
+            super(Deprecated.class);
+        }
+
+        @Override
+        public Set<String> getSupportedAnnotationTypes() {
+            return singleton(Deprecated.class.getName());
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        protected DeprecatedMesseger newMesseger(
+                final Class<Deprecated> annoType, final Messager messager,
+                final Element element) {
+            return new DeprecatedMesseger(messager, element, null, null);
+        }
+
+        @Override
+        protected void process(final Element element, final Deprecated anno) {
+            processed.add(element.getSimpleName().toString());
+        }
+    }
+
+    private static final class DeprecatedMesseger
+            extends
+            SingleAnnotationMessager<Deprecated, DeprecatedMesseger> {
+        private DeprecatedMesseger(final Messager messager,
+                final Element element, final AnnotationMirror mirror,
+                final AnnotationValue value) {
+            super(Deprecated.class, messager, element, mirror, value);
+        }
+
+        @Override
+        public DeprecatedMesseger withAnnotation(
+                final AnnotationMirror mirror, final AnnotationValue value) {
+            return new DeprecatedMesseger(messager, element, mirror, value);
+        }
+    }
+}
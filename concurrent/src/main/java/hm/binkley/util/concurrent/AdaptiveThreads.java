@@ -0,0 +1,298 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import hm.binkley.util.concurrent.CompletableExecutors.AdaptiveExecutorService;
+import hm.binkley.util.concurrent.CompletableExecutors.BatchFuture;
+import hm.binkley.util.concurrent.CompletableExecutors.CompletableExecutorService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static hm.binkley.util.concurrent.CompletableThreads.batchOf;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.callable;
+
+/**
+ * {@code AdaptiveThreads} decorates a completable execution service to
+ * reject tasks beyond an adaptive {@link ConcurrencyLimit limit} on tasks in
+ * flight.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+final class AdaptiveThreads
+        implements AdaptiveExecutorService {
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final CompletableExecutorService threads;
+    private final ConcurrencyLimit limit;
+
+    AdaptiveThreads(final CompletableExecutorService threads,
+            final ConcurrencyLimit limit) {
+        this.threads = requireNonNull(threads, "threads");
+        this.limit = requireNonNull(limit, "limit");
+    }
+
+    @Nonnull
+    @Override
+    public ConcurrencyLimit limit() {
+        return limit;
+    }
+
+    @Override
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    @Nonnull
+    @Override
+    public <T> CompletableFuture<T> submit(
+            @Nonnull final Callable<T> task) {
+        final Permit permit = new Permit();
+        final CompletableFuture<T> cf;
+        try {
+            cf = threads.submit(permit.releasing(task));
+        } catch (final RejectedExecutionException e) {
+            permit.release(e);
+            throw e;
+        }
+        // Releases tasks cancelled before running
+        cf.whenComplete((value, failure) -> permit.release(failure));
+        return cf;
+    }
+
+    @Nonnull
+    @Override
+    public <T> CompletableFuture<T> submit(@Nonnull final Runnable task,
+            @Nullable final T result) {
+        return submit(callable(task, result));
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<?> submit(@Nonnull final Runnable task) {
+        return submit(callable(task));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Tasks beyond the limit fail with {@code
+     * RejectedExecutionException}, failing the batch, while accepted
+     * tasks still run.
+     */
+    @Nonnull
+    @Override
+    public <T> BatchFuture<T> submitAll(
+            @Nonnull final Collection<? extends Callable<T>> tasks) {
+        final List<CompletableFuture<T>> futures = new ArrayList<>(
+                tasks.size());
+        for (final Callable<T> task : tasks)
+            try {
+                futures.add(submit(task));
+            } catch (final RejectedExecutionException e) {
+                final CompletableFuture<T> rejected
+                        = new CompletableFuture<>();
+                rejected.completeExceptionally(e);
+                futures.add(rejected);
+            }
+        return batchOf(futures);
+    }
+
+    @Override
+    public void execute(@Nonnull final Runnable command) {
+        final Permit permit = new Permit();
+        try {
+            threads.execute(() -> {
+                Throwable failure = null;
+                try {
+                    command.run();
+                } catch (final RuntimeException | Error e) {
+                    failure = e;
+                    throw e;
+                } finally {
+                    permit.release(failure);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            permit.release(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        threads.close();
+    }
+
+    @Override
+    public void shutdown() {
+        threads.shutdown();
+    }
+
+    @Nonnull
+    @Override
+    public List<Runnable> shutdownNow() {
+        return threads.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return threads.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return threads.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout,
+            @Nonnull final TimeUnit unit)
+            throws InterruptedException {
+        return threads.awaitTermination(timeout, unit);
+    }
+
+    @Nonnull
+    @Override
+    public <T> List<Future<T>> invokeAll(
+            @Nonnull final Collection<? extends Callable<T>> tasks)
+            throws InterruptedException {
+        return threads.invokeAll(limited(tasks));
+    }
+
+    @Nonnull
+    @Override
+    public <T> List<Future<T>> invokeAll(
+            @Nonnull final Collection<? extends Callable<T>> tasks,
+            final long timeout, @Nonnull final TimeUnit unit)
+            throws InterruptedException {
+        return threads.invokeAll(limited(tasks), timeout, unit);
+    }
+
+    @Nonnull
+    @Override
+    public <T> T invokeAny(
+            @Nonnull final Collection<? extends Callable<T>> tasks)
+            throws InterruptedException, ExecutionException {
+        return threads.invokeAny(limited(tasks));
+    }
+
+    @Override
+    public <T> T invokeAny(
+            @Nonnull final Collection<? extends Callable<T>> tasks,
+            final long timeout, @Nonnull final TimeUnit unit)
+            throws InterruptedException, ExecutionException,
+            TimeoutException {
+        return threads.invokeAny(limited(tasks), timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + '{' + threads + ", "
+                + limit + ", inFlight=" + inFlight + '}';
+    }
+
+    /** Takes a permit as the task starts rather than when submitted. */
+    private <T> List<Callable<T>> limited(
+            final Collection<? extends Callable<T>> tasks) {
+        final List<Callable<T>> limited = new ArrayList<>(tasks.size());
+        for (final Callable<T> task : tasks)
+            limited.add(() -> new Permit().releasing(task).call());
+        return limited;
+    }
+
+    /**
+     * Holds one of the tasks allowed in flight, feeding the task latency
+     * back to the limit when released.  Releasing more than once has no
+     * further effect.
+     */
+    private final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final int inFlight;
+        private final long started;
+
+        private Permit() {
+            inFlight = acquire();
+            started = System.nanoTime();
+        }
+
+        /**
+         * Releases as <var>task</var> finishes, before its future
+         * completes, so callers see the permit free again.
+         */
+        private <T> Callable<T> releasing(final Callable<T> task) {
+            return () -> {
+                Throwable failure = null;
+                try {
+                    return task.call();
+                } catch (final Exception | Error e) {
+                    failure = e;
+                    throw e;
+                } finally {
+                    release(failure);
+                }
+            };
+        }
+
+        private void release(@Nullable final Throwable failure) {
+            if (!released.compareAndSet(false, true))
+                return;
+            AdaptiveThreads.this.inFlight.decrementAndGet();
+            if (null == failure)
+                limit.sample(System.nanoTime() - started, inFlight);
+            else if (failure instanceof TimeoutException
+                    || failure instanceof RejectedExecutionException)
+                limit.dropped();
+        }
+    }
+
+    private int acquire() {
+        for (;;) {
+            final int current = inFlight.get();
+            final int limit = this.limit.limit();
+            if (current >= limit)
+                throw new RejectedExecutionException(
+                        "Concurrency limit reached: " + current + " of "
+                                + limit + " in flight");
+            if (inFlight.compareAndSet(current, current + 1))
+                return current + 1;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@code BoundedPriorityBlockingQueue} is a priority blocking queue with a
+ * fixed capacity.  Unlike {@link java.util.concurrent.PriorityBlockingQueue}
+ * it is <em>stable</em>: elements of equal priority leave the queue in
+ * arrival order.
+ * <p>
+ * When full, {@link #offer(Object)} fails and {@link #put(Object)} waits,
+ * giving back-pressure to producers in place of unbounded growth.
+ *
+ * @param <E> the element type
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class BoundedPriorityBlockingQueue<E>
+        extends AbstractQueue<E>
+        implements BlockingQueue<E> {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final PriorityQueue<Entry<E>> entries;
+    private final int capacity;
+    private long arrivals;
+
+    /**
+     * Creates a new {@code BoundedPriorityBlockingQueue}.
+     *
+     * @param capacity the maximum number of elements, positive
+     * @param comparator the element priority, least first, never missing
+     */
+    public BoundedPriorityBlockingQueue(final int capacity,
+            @Nonnull final Comparator<? super E> comparator) {
+        if (1 > capacity)
+            throw new IllegalArgumentException(
+                    "Non-positive capacity: " + capacity);
+        requireNonNull(comparator, "comparator");
+        this.capacity = capacity;
+        entries = new PriorityQueue<>(Math.min(capacity, 1 << 10),
+                (a, b) -> {
+                    final int byPriority = comparator
+                            .compare(a.element, b.element);
+                    return 0 != byPriority ? byPriority
+                            : Long.compare(a.arrival, b.arrival);
+                });
+    }
+
+    @Override
+    public boolean offer(@Nonnull final E e) {
+        requireNonNull(e);
+        lock.lock();
+        try {
+            if (capacity == entries.size())
+                return false;
+            enqueue(e);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(@Nonnull final E e, final long timeout,
+            @Nonnull final TimeUnit unit)
+            throws InterruptedException {
+        requireNonNull(e);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (capacity == entries.size()) {
+                if (0 >= nanos)
+                    return false;
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(e);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(@Nonnull final E e)
+            throws InterruptedException {
+        requireNonNull(e);
+        lock.lockInterruptibly();
+        try {
+            while (capacity == entries.size())
+                notFull.await();
+            enqueue(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll() {
+        lock.lock();
+        try {
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll(final long timeout, @Nonnull final TimeUnit unit)
+            throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (entries.isEmpty()) {
+                if (0 >= nanos)
+                    return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nonnull
+    @Override
+    public E take()
+            throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (entries.isEmpty())
+                notEmpty.await();
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E peek() {
+        lock.lock();
+        try {
+            final Entry<E> head = entries.peek();
+            return null == head ? null : head.element;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        if (null == o)
+            return false;
+        lock.lock();
+        try {
+            final Iterator<Entry<E>> it = entries.iterator();
+            while (it.hasNext())
+                if (o.equals(it.next().element)) {
+                    it.remove();
+                    notFull.signal();
+                    return true;
+                }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(@Nonnull final Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(@Nonnull final Collection<? super E> c,
+            final int maxElements) {
+        if (this == c)
+            throw new IllegalArgumentException("Draining to self");
+        lock.lock();
+        try {
+            int n = 0;
+            while (n < maxElements && !entries.isEmpty()) {
+                c.add(entries.poll().element);
+                ++n;
+            }
+            if (0 < n)
+                notFull.signalAll();
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Iterates over a snapshot in no particular order.  Removal through the
+     * iterator removes from this queue.
+     */
+    @Nonnull
+    @Override
+    public Iterator<E> iterator() {
+        final List<E> snapshot;
+        lock.lock();
+        try {
+            snapshot = new ArrayList<>(entries.size());
+            for (final Entry<E> entry : entries)
+                snapshot.add(entry.element);
+        } finally {
+            lock.unlock();
+        }
+        final Iterator<E> it = snapshot.iterator();
+        return new Iterator<E>() {
+            private E last;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return last = it.next();
+            }
+
+            @Override
+            public void remove() {
+                if (null == last)
+                    throw new IllegalStateException();
+                BoundedPriorityBlockingQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    private void enqueue(final E e) {
+        entries.add(new Entry<>(e, arrivals++));
+        notEmpty.signal();
+    }
+
+    private E dequeue() {
+        final Entry<E> head = entries.poll();
+        if (null == head)
+            return null;
+        notFull.signal();
+        return head.element;
+    }
+
+    private static final class Entry<E> {
+        private final E element;
+        private final long arrival;
+
+        private Entry(final E element, final long arrival) {
+            this.element = element;
+            this.arrival = arrival;
+        }
+    }
+}
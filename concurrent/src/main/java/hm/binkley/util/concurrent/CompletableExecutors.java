@@ -27,22 +27,44 @@
 
 package hm.binkley.util.concurrent;
 
-import hm.binkley.util.Mixin;
-
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor.AbortPolicy;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static hm.binkley.util.Mixin.newMixin;
-import static java.util.concurrent.Executors.callable;
+import static hm.binkley.util.concurrent.CompletableThreads.submitEach;
+import static hm.binkley.util.concurrent.VirtualThreads.virtualThreadPerTask;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * {@code CompleteableExecutors} are executors returning {@link
@@ -54,24 +76,385 @@ import static java.util.concurrent.Executors.callable;
  * <p>
  * Lastly, these executors expose {@code Closeable.close()} to shutdown the
  * thread pool in support of the <em>try-with-resources</em> idiom.
+ * <p>
+ * Besides wrapping existing executors, {@link #bounded(int, int,
+ * RejectedExecutionHandler) bounded}, {@link #prioritized(int, int,
+ * RejectedExecutionHandler) prioritized} and {@link #deadlined(int, int,
+ * RejectedExecutionHandler) deadlined} create thread pools with fixed
+ * queue capacity, so load spikes give back-pressure rather than unbounded
+ * queue growth.  Choose how to handle a full queue with {@link
+ * #callerRuns()}, {@link #blocking(long, TimeUnit)} or {@link #failFast()}.
+ * Where many threads submit at once, {@link #striped(int) striped} avoids
+ * contending on a single queue lock.
+ * For blocking work, {@link #virtualThreads(int) virtualThreads} runs each
+ * task in its own virtual thread, optionally limiting concurrency.  To
+ * see queue and run latencies, decorate any of these with {@link
+ * #instrumented(CompletableExecutorService) instrumented}; to shed load
+ * before latency collapses, with {@link #adaptive(CompletableExecutorService)
+ * adaptive}.
+ * <p>
+ * For delayed and periodic tasks, {@link #scheduled(ExecutorService)
+ * scheduled} returns completable futures from {@code schedule} and friends,
+ * timing tasks with a hierarchical timing wheel.
  *
  * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
- * @todo Think through completable for scheduled
  */
 public final class CompletableExecutors {
+    private static final AtomicInteger TIMERS = new AtomicInteger();
+
     /**
-     * Mixes the given <var>threads</var> (execution service) with overrides to
-     * provide a completable exection service.
+     * Wraps the given <var>threads</var> (execution service) to provide a
+     * completable exection service.  Methods other than {@code submit} and
+     * {@code close} delegate directly to <var>threads</var>.
      *
-     * @param threads the execution service, never missin
+     * @param threads the execution service, never missing
      *
      * @return the completable execution service, never missing
      */
     @Nonnull
     public static CompletableExecutorService completable(
             @Nonnull final ExecutorService threads) {
-        return newMixin(CompletableExecutorService.class,
-                new Overrides(threads), threads);
+        return new CompletableThreads(threads);
+    }
+
+    /**
+     * Creates a completable execution service of <var>nThreads</var> threads
+     * queueing at most <var>capacity</var> pending tasks.  Tasks submitted
+     * to a full queue go to <var>rejection</var>.
+     *
+     * @param nThreads the number of threads, positive
+     * @param capacity the maximum number of queued tasks, positive
+     * @param rejection the handler for tasks submitted to a full queue,
+     * never missing
+     *
+     * @return the completable execution service, never missing
+     *
+     * @see #callerRuns()
+     * @see #blocking(long, TimeUnit)
+     * @see #failFast()
+     */
+    @Nonnull
+    public static CompletableExecutorService bounded(final int nThreads,
+            final int capacity,
+            @Nonnull final RejectedExecutionHandler rejection) {
+        return completable(new ThreadPoolExecutor(nThreads, nThreads, 0L,
+                MILLISECONDS, new ArrayBlockingQueue<>(capacity),
+                rejection));
+    }
+
+    /**
+     * Creates a completable execution service of <var>nThreads</var> threads
+     * queueing tasks in a {@link StripedBlockingQueue}.  Use in place of
+     * {@code completable(Executors.newFixedThreadPool(nThreads))} when many
+     * threads submit at once: submitting threads queue to separate
+     * lock-free stripes rather than contend on the single lock of a {@code
+     * LinkedBlockingQueue}.  Tasks from different submitting threads may run
+     * in any order.
+     *
+     * @param nThreads the number of threads, positive
+     *
+     * @return the completable execution service, never missing
+     */
+    @Nonnull
+    public static CompletableExecutorService striped(final int nThreads) {
+        return completable(new ThreadPoolExecutor(nThreads, nThreads, 0L,
+                MILLISECONDS, new StripedBlockingQueue<>()));
+    }
+
+    /**
+     * Creates a completable execution service of <var>nThreads</var> threads
+     * queueing at most <var>capacity</var> pending tasks, running queued
+     * tasks highest priority first.  Tasks of equal priority run in
+     * submission order; tasks submitted without priority have priority 0.
+     * Tasks submitted to a full queue go to <var>rejection</var>.
+     *
+     * @param nThreads the number of threads, positive
+     * @param capacity the maximum number of queued tasks, positive
+     * @param rejection the handler for tasks submitted to a full queue,
+     * never missing
+     *
+     * @return the priority completable execution service, never missing
+     */
+    @Nonnull
+    public static PriorityExecutorService prioritized(final int nThreads,
+            final int capacity,
+            @Nonnull final RejectedExecutionHandler rejection) {
+        final ExecutorService threads = new ThreadPoolExecutor(nThreads,
+                nThreads, 0L, MILLISECONDS,
+                new BoundedPriorityBlockingQueue<>(capacity,
+                        PriorityThreads.HIGHEST_FIRST), rejection);
+        return new PriorityThreads(threads);
+    }
+
+    /**
+     * Creates a completable execution service of <var>nThreads</var> threads
+     * queueing at most <var>capacity</var> pending tasks, running queued
+     * tasks earliest deadline first.  Tasks whose deadline passes before
+     * they start are dropped, completing exceptionally with {@code
+     * TimeoutException}.  Tasks submitted without deadline never expire, and
+     * run after tasks with deadlines.  Tasks submitted to a full queue go to
+     * <var>rejection</var>.
+     *
+     * @param nThreads the number of threads, positive
+     * @param capacity the maximum number of queued tasks, positive
+     * @param rejection the handler for tasks submitted to a full queue,
+     * never missing
+     *
+     * @return the deadline completable execution service, never missing
+     */
+    @Nonnull
+    public static DeadlineExecutorService deadlined(final int nThreads,
+            final int capacity,
+            @Nonnull final RejectedExecutionHandler rejection) {
+        return deadlined(nThreads, capacity, rejection, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a completable execution service running queued tasks earliest
+     * deadline first, checking deadlines against <var>clock</var>.
+     *
+     * @param nThreads the number of threads, positive
+     * @param capacity the maximum number of queued tasks, positive
+     * @param rejection the handler for tasks submitted to a full queue,
+     * never missing
+     * @param clock the clock for checking deadlines, never missing
+     *
+     * @return the deadline completable execution service, never missing
+     *
+     * @see #deadlined(int, int, RejectedExecutionHandler)
+     */
+    @Nonnull
+    public static DeadlineExecutorService deadlined(final int nThreads,
+            final int capacity,
+            @Nonnull final RejectedExecutionHandler rejection,
+            @Nonnull final Clock clock) {
+        final ExecutorService threads = new ThreadPoolExecutor(nThreads,
+                nThreads, 0L, MILLISECONDS,
+                new BoundedPriorityBlockingQueue<>(capacity,
+                        DeadlineThreads.EARLIEST_FIRST), rejection);
+        return new DeadlineThreads(threads, clock);
+    }
+
+    /**
+     * Wraps the given <var>threads</var> (execution service) to provide a
+     * completable scheduled execution service, with a timer tick of 1
+     * millisecond.
+     *
+     * @param threads the execution service running tasks, never missing
+     *
+     * @return the completable scheduled execution service, never missing
+     *
+     * @see #scheduled(ExecutorService, long, TimeUnit, int)
+     */
+    @Nonnull
+    public static CompletableScheduledExecutorService scheduled(
+            @Nonnull final ExecutorService threads) {
+        return scheduled(threads, 1L, MILLISECONDS, 512);
+    }
+
+    /**
+     * Wraps the given <var>threads</var> (execution service) to provide a
+     * completable scheduled execution service.  A timer thread tracks delays
+     * with a hierarchical timing wheel, so scheduling and cancelling cost
+     * the same however many tasks are pending; due tasks run in
+     * <var>threads</var>.  Delays round up to whole ticks.
+     * <p>
+     * Shutting down cancels delayed and periodic tasks not yet due.
+     *
+     * @param threads the execution service running tasks, never missing
+     * @param tick the timer tick duration, positive
+     * @param unit the time unit of <var>tick</var>, never missing
+     * @param wheelSize the number of ticks per wheel turn, at least 2
+     *
+     * @return the completable scheduled execution service, never missing
+     */
+    @Nonnull
+    public static CompletableScheduledExecutorService scheduled(
+            @Nonnull final ExecutorService threads, final long tick,
+            @Nonnull final TimeUnit unit, final int wheelSize) {
+        final TimingWheel<ScheduledThreads.Fire> wheel = new TimingWheel<>(
+                tick, unit, wheelSize, task -> {
+            final Thread timer = new Thread(task,
+                    "completable-timer-" + TIMERS.incrementAndGet());
+            timer.setDaemon(true);
+            return timer;
+        });
+        wheel.start();
+        return new ScheduledThreads(threads, wheel);
+    }
+
+    /**
+     * Decorates <var>threads</var> to record task metrics: counts, queue and
+     * run latencies, and active and queued gauges.  Register {@link
+     * InstrumentedExecutorService#metrics() the metrics} as an MXBean to
+     * view them over JMX.
+     *
+     * @param threads the completable execution service, never missing
+     *
+     * @return the instrumented execution service, never missing
+     */
+    @Nonnull
+    public static InstrumentedExecutorService instrumented(
+            @Nonnull final CompletableExecutorService threads) {
+        return new InstrumentedThreads(threads);
+    }
+
+    /**
+     * Decorates <var>threads</var> to limit tasks in flight, adapting the
+     * limit to measured task latency with a default {@link ConcurrencyLimit}.
+     *
+     * @param threads the completable execution service, never missing
+     *
+     * @return the adaptive execution service, never missing
+     *
+     * @see #adaptive(CompletableExecutorService, ConcurrencyLimit)
+     */
+    @Nonnull
+    public static AdaptiveExecutorService adaptive(
+            @Nonnull final CompletableExecutorService threads) {
+        return adaptive(threads, new ConcurrencyLimit());
+    }
+
+    /**
+     * Decorates <var>threads</var> to limit tasks in flight, adapting the
+     * limit to measured task latency with <var>limit</var>.  Submitting
+     * beyond the limit throws {@code RejectedExecutionException} at once
+     * rather than queueing, so callers shed load while the downstream is
+     * saturated.  A task is in flight from submission until its future
+     * completes, so queueing in <var>threads</var> counts as latency.
+     * <p>
+     * Tasks completing normally adjust the limit by their latency; tasks
+     * failing with {@code TimeoutException}, or rejected by
+     * <var>threads</var>, count as dropped and cut the limit.  Other
+     * failures and cancellations leave the limit alone.  Tasks of {@code
+     * invokeAll} and {@code invokeAny} are limited as they start, failing
+     * with {@code RejectedExecutionException} beyond the limit.
+     *
+     * @param threads the completable execution service, never missing
+     * @param limit the adaptive concurrency limit, never missing
+     *
+     * @return the adaptive execution service, never missing
+     */
+    @Nonnull
+    public static AdaptiveExecutorService adaptive(
+            @Nonnull final CompletableExecutorService threads,
+            @Nonnull final ConcurrencyLimit limit) {
+        return new AdaptiveThreads(threads, limit);
+    }
+
+    /**
+     * Creates a completable execution service running each task in a new
+     * virtual thread.  {@link CompletableExecutorService#close() Closing}
+     * the service waits for all tasks to finish.
+     * <p>
+     * Virtual threads need JDK 21 or later; on older JDKs each task runs in
+     * a pooled platform thread instead.
+     *
+     * @return the completable execution service, never missing
+     *
+     * @see #virtualThreads(int)
+     */
+    @Nonnull
+    public static CompletableExecutorService virtualThreads() {
+        final ExecutorService virtual = virtualThreadPerTask();
+        return new VirtualThreads(
+                null == virtual ? newCachedThreadPool() : virtual, null);
+    }
+
+    /**
+     * Creates a completable execution service running each task in a new
+     * virtual thread, with at most <var>maxConcurrency</var> tasks running
+     * at once.  Tasks wait for a permit in their own virtual thread, so
+     * submitting does not block.  {@link CompletableExecutorService#close()
+     * Closing} the service waits for all tasks to finish, and {@link
+     * CompletableExecutorService#shutdownNow() shutting down now} returns
+     * tasks still waiting for a permit.
+     * <p>
+     * Virtual threads need JDK 21 or later; on older JDKs tasks queue for a
+     * pool of <var>maxConcurrency</var> platform threads instead.
+     *
+     * @param maxConcurrency the maximum number of running tasks, positive
+     *
+     * @return the completable execution service, never missing
+     */
+    @Nonnull
+    public static CompletableExecutorService virtualThreads(
+            final int maxConcurrency) {
+        if (1 > maxConcurrency)
+            throw new IllegalArgumentException(
+                    "Non-positive maximum concurrency: " + maxConcurrency);
+        final ExecutorService virtual = virtualThreadPerTask();
+        if (null != virtual)
+            return new VirtualThreads(virtual, new Semaphore(maxConcurrency));
+        final ThreadPoolExecutor threads = new ThreadPoolExecutor(
+                maxConcurrency, maxConcurrency, 60L, SECONDS,
+                new LinkedBlockingQueue<>());
+        threads.allowCoreThreadTimeOut(true);
+        return new VirtualThreads(threads, null);
+    }
+
+    /**
+     * Creates a rejection handler running tasks in the submitting thread,
+     * slowing producers to the pace of the pool.  Tasks submitted after
+     * shutdown fail with {@code RejectedExecutionException}, rather than
+     * being discarded and leaving their futures incomplete.
+     *
+     * @return the rejection handler, never missing
+     */
+    @Nonnull
+    public static RejectedExecutionHandler callerRuns() {
+        return (task, threads) -> {
+            if (threads.isShutdown())
+                throw new RejectedExecutionException(
+                        "Executor shut down: " + threads);
+            task.run();
+        };
+    }
+
+    /**
+     * Creates a rejection handler waiting up to <var>timeout</var> for queue
+     * space, and then failing with {@code RejectedExecutionException}.
+     * Tasks submitted after shutdown, or queued as it shuts down, also fail.
+     *
+     * @param timeout the maximum time to wait for queue space
+     * @param unit the time unit of <var>timeout</var>, never missing
+     *
+     * @return the rejection handler, never missing
+     */
+    @Nonnull
+    public static RejectedExecutionHandler blocking(final long timeout,
+            @Nonnull final TimeUnit unit) {
+        return (task, threads) -> {
+            if (threads.isShutdown())
+                throw new RejectedExecutionException(
+                        "Executor shut down: " + threads);
+            try {
+                if (threads.getQueue().offer(task, timeout, unit)) {
+                    // Shut down while offering: no worker may take it
+                    if (threads.isShutdown() && threads.remove(task))
+                        throw new RejectedExecutionException(
+                                "Executor shut down: " + threads);
+                    return;
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException(
+                        "Interrupted waiting for queue space", e);
+            }
+            throw new RejectedExecutionException(
+                    "Timed out waiting for queue space: " + threads);
+        };
+    }
+
+    /**
+     * Creates a rejection handler failing immediately with {@code
+     * RejectedExecutionException}.
+     *
+     * @return the rejection handler, never missing
+     */
+    @Nonnull
+    public static RejectedExecutionHandler failFast() {
+        return new AbortPolicy();
     }
 
     /**
@@ -105,58 +488,358 @@ public final class CompletableExecutors {
         @Override
         CompletableFuture<?> submit(@Nonnull final Runnable task);
 
+        /**
+         * Submits <var>tasks</var> together.  The batch future completes with
+         * all task values in order, or exceptionally with the first task
+         * failure; remaining tasks still run unless the batch is cancelled.
+         * Cancelling the batch cancels all its tasks.
+         * <p>
+         * This default submits each task separately.
+         *
+         * @param tasks the tasks, never missing
+         * @param <T> the task value type
+         *
+         * @return the batch future with the futures of each task, never
+         * missing
+         */
+        @Nonnull
+        default <T> BatchFuture<T> submitAll(
+                @Nonnull final Collection<? extends Callable<T>> tasks) {
+            return submitEach(this, tasks);
+        }
+
         /** Invokes {@link #shutdown()}. */
         @Override
         void close();
     }
 
     /**
-     * Implements the overriden methods of {@link CompletableExecutorService}
-     * making it usable in a mixin.  {@link Mixin#newMixin(Class, Object...)
-     * Mixins} currently require public delegates, otherwise this class would
-     * be {@code private}.
+     * {@code BatchFuture} is the future of {@link
+     * CompletableExecutorService#submitAll(Collection) a batch of tasks},
+     * completing with the list of task values.  As the last task of the batch
+     * completes, so does the batch, without a thread waiting on the tasks.
+     *
+     * @param <T> the task value type
      */
-    public static final class Overrides {
-        private final ExecutorService threads;
+    public static final class BatchFuture<T>
+            extends CompletableFuture<List<T>> {
+        private final List<? extends CompletableFuture<T>> tasks;
+        private final AtomicInteger remaining;
 
-        private Overrides(final ExecutorService threads) {
-            this.threads = threads;
+        BatchFuture(final List<? extends CompletableFuture<T>> tasks) {
+            this.tasks = tasks;
+            remaining = new AtomicInteger(tasks.size());
+            if (tasks.isEmpty())
+                complete(emptyList());
         }
 
+        /**
+         * Gets the futures of each task in the batch, in submission order.
+         *
+         * @return the unmodifiable list of task futures, never missing
+         */
         @Nonnull
-        public <T> CompletableFuture<T> submit(
-                @Nonnull final Callable<T> task) {
-            final CompletableFuture<T> cf = new UnwrappedCompletableFuture<>();
-            threads.submit(() -> {
-                try {
-                    cf.complete(task.call());
-                } catch (final CancellationException e) {
-                    cf.cancel(true);
-                } catch (final Exception e) {
-                    cf.completeExceptionally(e);
-                }
-            });
-            return cf;
+        public List<CompletableFuture<T>> tasks() {
+            return unmodifiableList(tasks);
         }
 
-        @Nonnull
-        public <T> CompletableFuture<T> submit(@Nonnull final Runnable task,
-                @Nullable final T result) {
-            return submit(callable(task, result));
+        /** Cancels the batch and all its tasks. */
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            for (final CompletableFuture<T> task : tasks)
+                task.cancel(mayInterruptIfRunning);
+            return cancelled;
+        }
+
+        @Override
+        public List<T> get()
+                throws InterruptedException, ExecutionException {
+            return UnwrappedCompletableFuture.UnwrappedInterrupts.
+                    <List<T>, RuntimeException>unwrap(super::get);
+        }
+
+        @Override
+        public List<T> get(final long timeout, final TimeUnit unit)
+                throws InterruptedException, ExecutionException,
+                TimeoutException {
+            return UnwrappedCompletableFuture.UnwrappedInterrupts.
+                    <List<T>, TimeoutException>unwrap(
+                            () -> super.get(timeout, unit));
+        }
+
+        /** Notes that <var>task</var> of this batch is complete. */
+        void done(final CompletableFuture<T> task) {
+            if (task.isCompletedExceptionally())
+                completeExceptionally(failure(task));
+            if (0 != remaining.decrementAndGet() || isDone())
+                return;
+            final List<T> values = new ArrayList<>(tasks.size());
+            for (final CompletableFuture<T> each : tasks)
+                values.add(each.getNow(null));
+            complete(unmodifiableList(values));
+        }
+
+        private static Throwable failure(final CompletableFuture<?> task) {
+            try {
+                task.getNow(null);
+                throw new IllegalStateException(
+                        "BUG: Not completed exceptionally: " + task);
+            } catch (final CompletionException e) {
+                return e.getCause();
+            } catch (final CancellationException e) {
+                return e;
+            }
         }
+    }
+
+    /**
+     * Overrides {@code ScheduledExecutorService} to covariantly return {@link
+     * CompletableScheduledFuture} in place of {@code ScheduledFuture}.
+     */
+    public interface CompletableScheduledExecutorService
+            extends CompletableExecutorService, ScheduledExecutorService {
+        /**
+         * @return a completable future representing pending completion of the
+         * task, never missing
+         */
+        @Nonnull
+        @Override
+        CompletableScheduledFuture<?> schedule(@Nonnull final Runnable command,
+                final long delay, @Nonnull final TimeUnit unit);
 
+        /**
+         * @return a completable future representing pending completion of the
+         * task, never missing
+         */
         @Nonnull
-        public CompletableFuture<?> submit(@Nonnull final Runnable task) {
-            return submit(callable(task));
+        @Override
+        <V> CompletableScheduledFuture<V> schedule(
+                @Nonnull final Callable<V> callable, final long delay,
+                @Nonnull final TimeUnit unit);
+
+        /**
+         * @return a completable future representing pending completion of the
+         * series of repeated tasks, completing only exceptionally, never
+         * missing
+         */
+        @Nonnull
+        @Override
+        CompletableScheduledFuture<?> scheduleAtFixedRate(
+                @Nonnull final Runnable command, final long initialDelay,
+                final long period, @Nonnull final TimeUnit unit);
+
+        /**
+         * @return a completable future representing pending completion of the
+         * series of repeated tasks, completing only exceptionally, never
+         * missing
+         */
+        @Nonnull
+        @Override
+        CompletableScheduledFuture<?> scheduleWithFixedDelay(
+                @Nonnull final Runnable command, final long initialDelay,
+                final long delay, @Nonnull final TimeUnit unit);
+    }
+
+    /**
+     * {@code CompletableScheduledFuture} is both a {@code CompletableFuture}
+     * and a {@code ScheduledFuture}.  Cancelling a task not yet due removes
+     * it from its timer.
+     *
+     * @param <V> the task value type
+     */
+    public static final class CompletableScheduledFuture<V>
+            extends UnwrappedCompletableFuture<V>
+            implements ScheduledFuture<V> {
+        volatile long deadlineNanos;
+        volatile TimingWheel<ScheduledThreads.Fire>.Timeout timeout;
+
+        CompletableScheduledFuture(final long delayNanos) {
+            deadlineNanos = deadline(delayNanos);
+        }
+
+        @Override
+        public long getDelay(@Nonnull final TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(),
+                    NANOSECONDS);
         }
 
-        public void close() {
-            threads.shutdown();
+        @Override
+        public int compareTo(@Nonnull final Delayed o) {
+            if (this == o)
+                return 0;
+            return Long.compare(getDelay(NANOSECONDS),
+                    o.getDelay(NANOSECONDS));
         }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            final TimingWheel<ScheduledThreads.Fire>.Timeout timeout
+                    = this.timeout;
+            if (cancelled && null != timeout)
+                timeout.cancel();
+            return cancelled;
+        }
+
+        /** Saturates rather than overflowing for huge delays. */
+        private static long deadline(final long delayNanos) {
+            return System.nanoTime() + Math
+                    .min(Math.max(0L, delayNanos), Long.MAX_VALUE >> 1);
+        }
+    }
+
+    /**
+     * Extends {@code CompletableExecutorService} with task deadlines.  Of
+     * queued tasks, those with earlier deadlines run first; tasks not
+     * started by their deadline do not run.
+     */
+    public interface DeadlineExecutorService
+            extends CompletableExecutorService {
+        /**
+         * Submits a value-returning task to start before <var>deadline</var>.
+         * If the deadline passes first, the task does not run, and its future
+         * completes exceptionally with {@code TimeoutException}.
+         *
+         * @return a completable future representing pending completion of the
+         * task, never missing
+         */
+        @Nonnull
+        <T> CompletableFuture<T> submit(@Nonnull final Callable<T> task,
+                @Nonnull final Instant deadline);
+
+        /**
+         * Gets the number of tasks dropped for passing their deadline.
+         *
+         * @return the dropped task count
+         */
+        long dropped();
+
+        /**
+         * Gets the number of tasks run to completion, normally or
+         * exceptionally.
+         *
+         * @return the completed task count
+         */
+        long completed();
+    }
+
+    /**
+     * Extends {@code CompletableExecutorService} with an adaptive limit on
+     * tasks in flight.
+     */
+    public interface AdaptiveExecutorService
+            extends CompletableExecutorService {
+        /**
+         * Gets the adaptive concurrency limit of this execution service.
+         *
+         * @return the limit, never missing
+         */
+        @Nonnull
+        ConcurrencyLimit limit();
+
+        /**
+         * Gets the number of tasks now in flight.
+         *
+         * @return the in-flight task count
+         */
+        int inFlight();
+    }
+
+    /**
+     * Extends {@code CompletableExecutorService} with task metrics.
+     */
+    public interface InstrumentedExecutorService
+            extends CompletableExecutorService {
+        /**
+         * Gets the live metrics of this execution service.
+         *
+         * @return the metrics, never missing
+         */
+        @Nonnull
+        ExecutorMetrics metrics();
     }
 
-    private static final class UnwrappedCompletableFuture<T>
+    /**
+     * Extends {@code CompletableExecutorService} with task priorities.  Of
+     * queued tasks, those with higher priority run first.
+     */
+    public interface PriorityExecutorService
+            extends CompletableExecutorService {
+        /**
+         * Submits a value-returning task with the given <var>priority</var>.
+         *
+         * @return a completable future representing pending completion of the
+         * task, never missing
+         */
+        @Nonnull
+        <T> CompletableFuture<T> submit(final int priority,
+                @Nonnull final Callable<T> task);
+
+        /**
+         * Submits a runnable task with the given <var>priority</var>.
+         *
+         * @return a completable future representing pending completion of the
+         * task, never missing
+         */
+        @Nonnull
+        <T> CompletableFuture<T> submit(final int priority,
+                @Nonnull final Runnable task, @Nullable final T result);
+
+        /**
+         * Submits a runnable task with the given <var>priority</var>.
+         *
+         * @return a completable future representing pending completion of the
+         * task, never missing
+         */
+        @Nonnull
+        CompletableFuture<?> submit(final int priority,
+                @Nonnull final Runnable task);
+    }
+
+    /**
+     * Links to its queued or running task, so that cancelling the future
+     * interrupts the task or removes it from the queue.
+     */
+    static class UnwrappedCompletableFuture<T>
             extends CompletableFuture<T> {
+        private volatile ExecutorService threads;
+        private volatile FutureTask<?> task;
+
+        UnwrappedCompletableFuture<T> runs(final FutureTask<?> task,
+                final ExecutorService threads) {
+            threads.execute(task);
+            return links(task, threads);
+        }
+
+        UnwrappedCompletableFuture<T> links(final FutureTask<?> task,
+                final ExecutorService threads) {
+            this.threads = threads;
+            this.task = task;
+            // Cancelled before linked?
+            if (isCancelled())
+                cancel(task, threads, true);
+            return this;
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            final FutureTask<?> task = this.task;
+            if (cancelled && null != task)
+                cancel(task, threads, mayInterruptIfRunning);
+            return cancelled;
+        }
+
+        private static void cancel(final FutureTask<?> task,
+                final ExecutorService threads,
+                final boolean mayInterruptIfRunning) {
+            task.cancel(mayInterruptIfRunning);
+            // Free queue capacity now rather than when dequeued
+            if (threads instanceof ThreadPoolExecutor)
+                ((ThreadPoolExecutor) threads).remove(task);
+        }
+
         @Override
         public T get()
                 throws InterruptedException, ExecutionException {
@@ -0,0 +1,265 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import hm.binkley.util.concurrent.CompletableExecutors.BatchFuture;
+import hm.binkley.util.concurrent.CompletableExecutors.CompletableExecutorService;
+import hm.binkley.util.concurrent.CompletableExecutors.UnwrappedCompletableFuture;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.Executors.callable;
+
+/**
+ * {@code CompletableThreads} wraps an execution service to return {@link
+ * UnwrappedCompletableFuture completable futures}, delegating all else.
+ * The other decorators of {@link CompletableExecutors} extend it.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+class CompletableThreads
+        implements CompletableExecutorService {
+    final ExecutorService threads;
+
+    CompletableThreads(final ExecutorService threads) {
+        this.threads = threads;
+    }
+
+    @Nonnull
+    @Override
+    public <T> CompletableFuture<T> submit(
+            @Nonnull final Callable<T> task) {
+        final UnwrappedCompletableFuture<T> cf
+                = new UnwrappedCompletableFuture<>();
+        return cf.runs(new FutureTask<>(completing(cf, task), null),
+                threads);
+    }
+
+    @Nonnull
+    @Override
+    public <T> CompletableFuture<T> submit(@Nonnull final Runnable task,
+            @Nullable final T result) {
+        return submit(callable(task, result));
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<?> submit(@Nonnull final Runnable task) {
+        return submit(callable(task));
+    }
+
+    @Override
+    public void close() {
+        threads.shutdown();
+    }
+
+    @Override
+    public void execute(@Nonnull final Runnable command) {
+        threads.execute(command);
+    }
+
+    @Override
+    public void shutdown() {
+        threads.shutdown();
+    }
+
+    @Nonnull
+    @Override
+    public List<Runnable> shutdownNow() {
+        return threads.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return threads.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return threads.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout,
+            @Nonnull final TimeUnit unit)
+            throws InterruptedException {
+        return threads.awaitTermination(timeout, unit);
+    }
+
+    @Nonnull
+    @Override
+    public <T> List<Future<T>> invokeAll(
+            @Nonnull final Collection<? extends Callable<T>> tasks)
+            throws InterruptedException {
+        return threads.invokeAll(tasks);
+    }
+
+    @Nonnull
+    @Override
+    public <T> List<Future<T>> invokeAll(
+            @Nonnull final Collection<? extends Callable<T>> tasks,
+            final long timeout, @Nonnull final TimeUnit unit)
+            throws InterruptedException {
+        return threads.invokeAll(tasks, timeout, unit);
+    }
+
+    @Nonnull
+    @Override
+    public <T> T invokeAny(
+            @Nonnull final Collection<? extends Callable<T>> tasks)
+            throws InterruptedException, ExecutionException {
+        return threads.invokeAny(tasks);
+    }
+
+    @Override
+    public <T> T invokeAny(
+            @Nonnull final Collection<? extends Callable<T>> tasks,
+            final long timeout, @Nonnull final TimeUnit unit)
+            throws InterruptedException, ExecutionException,
+            TimeoutException {
+        return threads.invokeAny(tasks, timeout, unit);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Rather than queue each task, queues up to one drainer per pool
+     * thread.  Drainers claim tasks from the batch in turn until none
+     * remain, so faster drainers take more tasks.
+     */
+    @Nonnull
+    @Override
+    public <T> BatchFuture<T> submitAll(
+            @Nonnull final Collection<? extends Callable<T>> tasks) {
+        final int n = tasks.size();
+        final List<UnwrappedCompletableFuture<T>> futures
+                = new ArrayList<>(n);
+        final List<FutureTask<?>> runs = new ArrayList<>(n);
+        for (final Callable<T> task : tasks) {
+            final UnwrappedCompletableFuture<T> cf
+                    = new UnwrappedCompletableFuture<>();
+            final FutureTask<?> run = new FutureTask<>(
+                    completing(cf, task), null);
+            futures.add(cf.links(run, threads));
+            runs.add(run);
+        }
+        final BatchFuture<T> batch = new BatchFuture<>(futures);
+        if (0 == n)
+            return batch;
+
+        final AtomicInteger next = new AtomicInteger();
+        final Runnable drainer = () -> {
+            for (int i = next.getAndIncrement(); i < n;
+                    i = next.getAndIncrement()) {
+                final FutureTask<?> run = runs.get(i);
+                if (!run.isCancelled()) {
+                    run.run();
+                    // Clear interrupt from cancel(true) while running,
+                    // but keep that of shutdownNow
+                    if (run.isCancelled() && Thread.interrupted()
+                            && threads.isShutdown())
+                        Thread.currentThread().interrupt();
+                }
+                batch.done(futures.get(i));
+            }
+        };
+        final int drainers = Math.min(n, parallelism());
+        for (int k = 0; k < drainers; ++k)
+            try {
+                threads.execute(drainer);
+            } catch (final RejectedExecutionException e) {
+                // Accepted drainers take all tasks
+                if (0 == k)
+                    throw e;
+                break;
+            }
+        return batch;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + '{' + threads + '}';
+    }
+
+    private int parallelism() {
+        if (threads instanceof ThreadPoolExecutor)
+            return ((ThreadPoolExecutor) threads).getMaximumPoolSize();
+        if (threads instanceof ForkJoinPool)
+            return ((ForkJoinPool) threads).getParallelism();
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    static <T> BatchFuture<T> submitEach(
+            final CompletableExecutorService threads,
+            final Collection<? extends Callable<T>> tasks) {
+        final List<CompletableFuture<T>> futures = new ArrayList<>(
+                tasks.size());
+        for (final Callable<T> task : tasks)
+            futures.add(threads.submit(task));
+        return batchOf(futures);
+    }
+
+    static <T> BatchFuture<T> batchOf(
+            final List<CompletableFuture<T>> futures) {
+        final BatchFuture<T> batch = new BatchFuture<>(futures);
+        for (final CompletableFuture<T> future : futures)
+            future.whenComplete((value, failure) -> batch.done(future));
+        return batch;
+    }
+
+    static <T> Runnable completing(final CompletableFuture<T> cf,
+            final Callable<T> task) {
+        return () -> {
+            try {
+                cf.complete(task.call());
+            } catch (final CancellationException e) {
+                // Already running: no need to interrupt ourselves
+                cf.cancel(false);
+            } catch (final Exception e) {
+                cf.completeExceptionally(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+package hm.binkley.util.concurrent;
+
+/**
+ * {@code ConcurrencyLimit} adjusts the number of tasks allowed in flight
+ * from their measured latency, after the gradient limits of Netflix
+ * <a href="https://github.com/Netflix/concurrency-limits">concurrency-limits</a>.
+ * <p>
+ * Each sample compares a long-term average latency with the latest
+ * latency.  While they agree, the limit grows by a small queue allowance;
+ * as latency rises above the average, the limit shrinks in proportion.
+ * Dropped tasks, those timing out or rejected downstream, cut the limit
+ * multiplicatively as in AIMD.  So the limit settles near the concurrency
+ * the downstream can serve without queueing, and backs off before latency
+ * collapses under overload.
+ * <p>
+ * The limit does not grow while fewer than half of the allowed tasks are
+ * in flight, since such samples say nothing about a higher limit.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ * @see CompletableExecutors#adaptive(CompletableExecutors.CompletableExecutorService,
+ * ConcurrencyLimit)
+ */
+public final class ConcurrencyLimit {
+    /** Samples in the long-term latency average. */
+    static final int WINDOW = 600;
+    /** Latency rise tolerated before shrinking the limit. */
+    static final double TOLERANCE = 1.5;
+    /** Weight of each new limit against the current one. */
+    static final double SMOOTHING = 0.2;
+    /** Multiplier applied to the limit on a dropped task. */
+    static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private volatile double limit;
+    private double longRtt;
+    private long samples;
+
+    /**
+     * Creates a new {@code ConcurrencyLimit} starting at 20 tasks, between
+     * 1 and 1000.
+     */
+    public ConcurrencyLimit() {
+        this(20, 1, 1000);
+    }
+
+    /**
+     * Creates a new {@code ConcurrencyLimit}.
+     *
+     * @param initialLimit the starting limit, between the bounds
+     * @param minLimit the lowest limit, positive
+     * @param maxLimit the highest limit, at least <var>minLimit</var>
+     */
+    public ConcurrencyLimit(final int initialLimit, final int minLimit,
+            final int maxLimit) {
+        if (1 > minLimit)
+            throw new IllegalArgumentException(
+                    "Non-positive minimum limit: " + minLimit);
+        if (minLimit > maxLimit)
+            throw new IllegalArgumentException(
+                    "Maximum limit below minimum: " + maxLimit + " < "
+                            + minLimit);
+        if (minLimit > initialLimit || maxLimit < initialLimit)
+            throw new IllegalArgumentException(
+                    "Initial limit out of bounds: " + initialLimit);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        limit = initialLimit;
+    }
+
+    /**
+     * Gets the current number of tasks allowed in flight.
+     *
+     * @return the limit, between the bounds
+     */
+    public int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * Gets the lowest limit.
+     *
+     * @return the minimum limit
+     */
+    public int minLimit() {
+        return minLimit;
+    }
+
+    /**
+     * Gets the highest limit.
+     *
+     * @return the maximum limit
+     */
+    public int maxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * Gets the long-term average latency, or 0 before any samples.
+     *
+     * @return the average latency in nanoseconds
+     */
+    public synchronized long averageLatency() {
+        return (long) longRtt;
+    }
+
+    /**
+     * Adjusts the limit for a task finishing in <var>rttNanos</var>, with
+     * <var>inFlight</var> tasks in flight when it started.
+     */
+    synchronized void sample(final long rttNanos, final int inFlight) {
+        final double shortRtt = Math.max(1L, rttNanos);
+        // Warm up with a plain average, then decay exponentially
+        longRtt += (shortRtt - longRtt) / Math.min(++samples, WINDOW);
+        // Latency dropped well below the average: forget the old regime
+        // sooner, so the limit recovers
+        if (2.0 < longRtt / shortRtt)
+            longRtt *= 0.95;
+
+        final double current = limit;
+        if (inFlight < current / 2)
+            return;
+        final double gradient = Math.max(0.5,
+                Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        final double target = current * gradient + Math.sqrt(current);
+        limit = bounded(current * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+
+    /** Cuts the limit for a task dropped from overload. */
+    synchronized void dropped() {
+        limit = bounded(limit * BACKOFF);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{limit=" + limit() + ", min="
+                + minLimit + ", max=" + maxLimit + '}';
+    }
+
+    private double bounded(final double limit) {
+        return Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+}
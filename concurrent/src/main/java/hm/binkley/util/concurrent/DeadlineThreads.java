@@ -0,0 +1,132 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import hm.binkley.util.concurrent.CompletableExecutors.BatchFuture;
+import hm.binkley.util.concurrent.CompletableExecutors.DeadlineExecutorService;
+import hm.binkley.util.concurrent.CompletableExecutors.UnwrappedCompletableFuture;
+
+import javax.annotation.Nonnull;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import static hm.binkley.util.concurrent.CompletableThreads.completing;
+import static hm.binkley.util.concurrent.CompletableThreads.submitEach;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@code DeadlineThreads} submits tasks with a deadline, for a pool queueing
+ * in {@link #EARLIEST_FIRST} order, and drops tasks not started by their
+ * deadline.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+final class DeadlineThreads
+        extends CompletableThreads
+        implements DeadlineExecutorService {
+    /** Orders earliest deadline first; tasks without deadline last. */
+    static final Comparator<Runnable> EARLIEST_FIRST = (a, b) -> DeadlineTask
+            .deadline(a).compareTo(DeadlineTask.deadline(b));
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final Clock clock;
+
+    DeadlineThreads(final ExecutorService threads, final Clock clock) {
+        super(threads);
+        this.clock = clock;
+    }
+
+    @Nonnull
+    @Override
+    public <T> CompletableFuture<T> submit(
+            @Nonnull final Callable<T> task) {
+        return submit(task, Instant.MAX);
+    }
+
+    @Nonnull
+    @Override
+    public <T> CompletableFuture<T> submit(@Nonnull final Callable<T> task,
+            @Nonnull final Instant deadline) {
+        requireNonNull(deadline, "deadline");
+        final UnwrappedCompletableFuture<T> cf
+                = new UnwrappedCompletableFuture<>();
+        final Runnable completing = completing(cf, task);
+        return cf.runs(new DeadlineTask(deadline, () -> {
+            if (!clock.instant().isBefore(deadline)) {
+                dropped.increment();
+                cf.completeExceptionally(new TimeoutException(
+                        "Deadline passed before start: " + deadline));
+                return;
+            }
+            completing.run();
+            completed.increment();
+        }), threads);
+    }
+
+    /** Submits each task of the batch without deadline, and counts it. */
+    @Nonnull
+    @Override
+    public <T> BatchFuture<T> submitAll(
+            @Nonnull final Collection<? extends Callable<T>> tasks) {
+        return submitEach(this, tasks);
+    }
+
+    @Override
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public long completed() {
+        return completed.sum();
+    }
+
+    private static final class DeadlineTask
+            extends FutureTask<Void> {
+        private final Instant deadline;
+
+        private DeadlineTask(final Instant deadline, final Runnable task) {
+            super(task, null);
+            this.deadline = deadline;
+        }
+
+        private static Instant deadline(final Runnable task) {
+            return task instanceof DeadlineTask
+                    ? ((DeadlineTask) task).deadline : Instant.MAX;
+        }
+    }
+}
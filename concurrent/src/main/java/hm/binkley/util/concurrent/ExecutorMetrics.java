@@ -0,0 +1,217 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+package hm.binkley.util.concurrent;
+
+import hm.binkley.util.concurrent.LatencyHistogram.Summary;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code ExecutorMetrics} are live task counts and latencies for an {@link
+ * CompletableExecutors#instrumented(CompletableExecutors.CompletableExecutorService)
+ * instrumented} executor.  Counters are striped {@code LongAdder}s, so
+ * recording costs little under contention; reads are not atomic across
+ * counters.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class ExecutorMetrics
+        implements ExecutorMetricsMXBean {
+    final LongAdder submitted = new LongAdder();
+    final LongAdder completed = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    final LongAdder cancelled = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final LongAdder active = new LongAdder();
+    final LongAdder queued = new LongAdder();
+    final LatencyHistogram queueLatency = new LatencyHistogram();
+    final LatencyHistogram runLatency = new LatencyHistogram();
+
+    ExecutorMetrics() {
+    }
+
+    @Override
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    @Override
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    @Override
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public long getCancelled() {
+        return cancelled.sum();
+    }
+
+    @Override
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getActive() {
+        return active.sum();
+    }
+
+    @Override
+    public long getQueued() {
+        return queued.sum();
+    }
+
+    @Override
+    public Summary getQueueLatency() {
+        return queueLatency.summary();
+    }
+
+    @Override
+    public Summary getRunLatency() {
+        return runLatency.summary();
+    }
+
+    /**
+     * Gets the histogram of times from submission to start.
+     *
+     * @return the queue latencies, never missing
+     */
+    @Nonnull
+    public LatencyHistogram queueLatency() {
+        return queueLatency;
+    }
+
+    /**
+     * Gets the histogram of times from start to finish.
+     *
+     * @return the run latencies, never missing
+     */
+    @Nonnull
+    public LatencyHistogram runLatency() {
+        return runLatency;
+    }
+
+    /**
+     * Captures the current metrics.
+     *
+     * @return the snapshot, never missing
+     */
+    @Nonnull
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    /** {@code Snapshot} is an immutable capture of executor metrics. */
+    public static final class Snapshot
+            implements ExecutorMetricsMXBean {
+        private final long submitted;
+        private final long completed;
+        private final long failed;
+        private final long cancelled;
+        private final long rejected;
+        private final long active;
+        private final long queued;
+        private final Summary queueLatency;
+        private final Summary runLatency;
+
+        private Snapshot(final ExecutorMetricsMXBean metrics) {
+            submitted = metrics.getSubmitted();
+            completed = metrics.getCompleted();
+            failed = metrics.getFailed();
+            cancelled = metrics.getCancelled();
+            rejected = metrics.getRejected();
+            active = metrics.getActive();
+            queued = metrics.getQueued();
+            queueLatency = metrics.getQueueLatency();
+            runLatency = metrics.getRunLatency();
+        }
+
+        @Override
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        @Override
+        public long getCompleted() {
+            return completed;
+        }
+
+        @Override
+        public long getFailed() {
+            return failed;
+        }
+
+        @Override
+        public long getCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public long getRejected() {
+            return rejected;
+        }
+
+        @Override
+        public long getActive() {
+            return active;
+        }
+
+        @Override
+        public long getQueued() {
+            return queued;
+        }
+
+        @Override
+        public Summary getQueueLatency() {
+            return queueLatency;
+        }
+
+        @Override
+        public Summary getRunLatency() {
+            return runLatency;
+        }
+
+        @Override
+        public String toString() {
+            return "submitted=" + submitted + ", completed=" + completed
+                    + ", failed=" + failed + ", cancelled=" + cancelled
+                    + ", rejected=" + rejected + ", active=" + active
+                    + ", queued=" + queued + ", queue latency=["
+                    + queueLatency + "], run latency=[" + runLatency + ']';
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import hm.binkley.util.concurrent.CompletableExecutors.CompletableExecutorService;
+import hm.binkley.util.concurrent.CompletableExecutors.InstrumentedExecutorService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.Executors.callable;
+
+/**
+ * {@code InstrumentedThreads} decorates a completable execution service to
+ * record {@link ExecutorMetrics task metrics}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+final class InstrumentedThreads
+        implements InstrumentedExecutorService {
+    private final ExecutorMetrics metrics = new ExecutorMetrics();
+    private final CompletableExecutorService threads;
+
+    InstrumentedThreads(final CompletableExecutorService threads) {
+        this.threads = threads;
+    }
+
+    @Nonnull
+    @Override
+    public ExecutorMetrics metrics() {
+        return metrics;
+    }
+
+    @Nonnull
+    @Override
+    public <T> CompletableFuture<T> submit(
+            @Nonnull final Callable<T> task) {
+        final Timed<T> timed = new Timed<>(task);
+        final CompletableFuture<T> cf;
+        try {
+            cf = threads.submit((Callable<T>) timed);
+        } catch (final RejectedExecutionException e) {
+            timed.rejected();
+            throw e;
+        }
+        // Counts tasks cancelled while queued
+        cf.whenComplete((value, failure) -> timed.abandoned());
+        return cf;
+    }
+
+    @Nonnull
+    @Override
+    public <T> CompletableFuture<T> submit(@Nonnull final Runnable task,
+            @Nullable final T result) {
+        return submit(callable(task, result));
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<?> submit(@Nonnull final Runnable task) {
+        return submit(callable(task));
+    }
+
+    @Override
+    public void execute(@Nonnull final Runnable command) {
+        final Timed<Object> timed = new Timed<>(callable(command));
+        try {
+            threads.execute(timed);
+        } catch (final RejectedExecutionException e) {
+            timed.rejected();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        threads.close();
+    }
+
+    @Override
+    public void shutdown() {
+        threads.shutdown();
+    }
+
+    @Nonnull
+    @Override
+    public List<Runnable> shutdownNow() {
+        return threads.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return threads.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return threads.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout,
+            @Nonnull final TimeUnit unit)
+            throws InterruptedException {
+        return threads.awaitTermination(timeout, unit);
+    }
+
+    @Nonnull
+    @Override
+    public <T> List<Future<T>> invokeAll(
+            @Nonnull final Collection<? extends Callable<T>> tasks)
+            throws InterruptedException {
+        final List<Timed<T>> timed = timed(tasks);
+        try {
+            return threads.invokeAll(timed);
+        } catch (final RejectedExecutionException e) {
+            timed.forEach(Timed::rejected);
+            throw e;
+        } finally {
+            timed.forEach(Timed::abandoned);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public <T> List<Future<T>> invokeAll(
+            @Nonnull final Collection<? extends Callable<T>> tasks,
+            final long timeout, @Nonnull final TimeUnit unit)
+            throws InterruptedException {
+        final List<Timed<T>> timed = timed(tasks);
+        try {
+            return threads.invokeAll(timed, timeout, unit);
+        } catch (final RejectedExecutionException e) {
+            timed.forEach(Timed::rejected);
+            throw e;
+        } finally {
+            timed.forEach(Timed::abandoned);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public <T> T invokeAny(
+            @Nonnull final Collection<? extends Callable<T>> tasks)
+            throws InterruptedException, ExecutionException {
+        final List<Timed<T>> timed = timed(tasks);
+        try {
+            return threads.invokeAny(timed);
+        } catch (final RejectedExecutionException e) {
+            timed.forEach(Timed::rejected);
+            throw e;
+        } finally {
+            timed.forEach(Timed::abandoned);
+        }
+    }
+
+    @Override
+    public <T> T invokeAny(
+            @Nonnull final Collection<? extends Callable<T>> tasks,
+            final long timeout, @Nonnull final TimeUnit unit)
+            throws InterruptedException, ExecutionException,
+            TimeoutException {
+        final List<Timed<T>> timed = timed(tasks);
+        try {
+            return threads.invokeAny(timed, timeout, unit);
+        } catch (final RejectedExecutionException e) {
+            timed.forEach(Timed::rejected);
+            throw e;
+        } finally {
+            timed.forEach(Timed::abandoned);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + '{' + threads + ", "
+                + metrics + '}';
+    }
+
+    private <T> List<Timed<T>> timed(
+            final Collection<? extends Callable<T>> tasks) {
+        final List<Timed<T>> timed = new ArrayList<>(tasks.size());
+        for (final Callable<T> task : tasks)
+            timed.add(new Timed<>(task));
+        return timed;
+    }
+
+    /**
+     * Times a task from submission.  Exactly one of starting,
+     * rejection or abandonment takes the task off the queued gauge.
+     */
+    private final class Timed<T>
+            implements Callable<T>, Runnable {
+        private final AtomicBoolean dequeued = new AtomicBoolean();
+        private final Callable<T> task;
+        private final long submitted;
+
+        private Timed(final Callable<T> task) {
+            this.task = task;
+            metrics.submitted.increment();
+            metrics.queued.increment();
+            submitted = System.nanoTime();
+        }
+
+        @Override
+        public T call()
+                throws Exception {
+            final long started = System.nanoTime();
+            if (dequeued.compareAndSet(false, true)) {
+                metrics.queued.decrement();
+                metrics.queueLatency.record(started - submitted);
+            }
+            metrics.active.increment();
+            boolean completed = false;
+            try {
+                final T value = task.call();
+                completed = true;
+                return value;
+            } finally {
+                metrics.runLatency.record(System.nanoTime() - started);
+                metrics.active.decrement();
+                (completed ? metrics.completed : metrics.failed)
+                        .increment();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                call();
+            } catch (final RuntimeException e) {
+                throw e;
+            } catch (final Exception e) {
+                // Only from callable(Runnable), which cannot
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+
+        private void rejected() {
+            if (dequeued.compareAndSet(false, true)) {
+                metrics.queued.decrement();
+                metrics.rejected.increment();
+            }
+        }
+
+        private void abandoned() {
+            if (dequeued.compareAndSet(false, true)) {
+                metrics.queued.decrement();
+                metrics.cancelled.increment();
+            }
+        }
+    }
+}
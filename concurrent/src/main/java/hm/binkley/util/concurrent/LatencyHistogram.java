@@ -0,0 +1,220 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+package hm.binkley.util.concurrent;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code LatencyHistogram} records nanosecond latencies in log-linear
+ * buckets, in the style of HDR histograms.  Values below {@value
+ * #SUB_BUCKETS} are exact; larger values keep {@value #SUB_BUCKET_BITS}
+ * significant bits below the leading bit, a relative error under 4%.
+ * <p>
+ * Recording is lock-free and does not allocate, so it suits hot paths.
+ * Reading percentiles walks all buckets, so is meant for occasional
+ * reporting.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(
+            (Long.SIZE + 1 - SUB_BUCKET_BITS) * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Records one latency.  Negative latencies, as from clock skew, record
+     * as 0.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0L, nanos);
+        buckets.incrementAndGet(index(value));
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return the count
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the highest recorded latency, or 0 if none.
+     *
+     * @return the maximum latency in nanoseconds
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Gets the mean recorded latency, or 0 if none.
+     *
+     * @return the mean latency in nanoseconds
+     */
+    public double mean() {
+        final long n = count.sum();
+        return 0 == n ? 0.0 : (double) total.sum() / n;
+    }
+
+    /**
+     * Gets the latency at or below which <var>percentile</var> percent of
+     * recorded latencies fall, to bucket precision.
+     *
+     * @param percentile the percentile, between 0 and 100
+     *
+     * @return the latency in nanoseconds, or 0 if none recorded
+     */
+    public long valueAtPercentile(final double percentile) {
+        if (0.0 > percentile || 100.0 < percentile)
+            throw new IllegalArgumentException(
+                    "Percentile not between 0 and 100: " + percentile);
+        long n = 0;
+        final long[] counts = new long[buckets.length()];
+        for (int i = 0; i < counts.length; ++i)
+            n += counts[i] = buckets.get(i);
+        if (0 == n)
+            return 0L;
+        final long rank = Math.max(1L, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length; ++i)
+            if (rank <= (seen += counts[i]))
+                return Math.min(highestEquivalent(i), max());
+        return max();
+    }
+
+    /**
+     * Summarizes this histogram.
+     *
+     * @return the summary, never missing
+     */
+    @Nonnull
+    public Summary summary() {
+        return new Summary(count(), (long) mean(), valueAtPercentile(50),
+                valueAtPercentile(90), valueAtPercentile(99),
+                valueAtPercentile(99.9), max());
+    }
+
+    static int index(final long value) {
+        if (SUB_BUCKETS > value)
+            return (int) value;
+        final int shift = Long.SIZE - 1 - SUB_BUCKET_BITS - Long
+                .numberOfLeadingZeros(value);
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift)
+                - SUB_BUCKETS;
+    }
+
+    static long highestEquivalent(final int index) {
+        final int group = index / SUB_BUCKETS;
+        final long sub = index % SUB_BUCKETS;
+        if (0 == group)
+            return sub;
+        final int shift = group - 1;
+        final long lowest = (SUB_BUCKETS + sub) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return summary().toString();
+    }
+
+    /**
+     * {@code Summary} is an immutable summary of a {@code LatencyHistogram}.
+     * It is a JMX open type, usable from {@link ExecutorMetricsMXBean}.
+     */
+    public static final class Summary {
+        private final long count;
+        private final long meanNanos;
+        private final long p50Nanos;
+        private final long p90Nanos;
+        private final long p99Nanos;
+        private final long p999Nanos;
+        private final long maxNanos;
+
+        private Summary(final long count, final long meanNanos,
+                final long p50Nanos, final long p90Nanos, final long p99Nanos,
+                final long p999Nanos, final long maxNanos) {
+            this.count = count;
+            this.meanNanos = meanNanos;
+            this.p50Nanos = p50Nanos;
+            this.p90Nanos = p90Nanos;
+            this.p99Nanos = p99Nanos;
+            this.p999Nanos = p999Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMeanNanos() {
+            return meanNanos;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP90Nanos() {
+            return p90Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getP999Nanos() {
+            return p999Nanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", mean=" + meanNanos + "ns, p50="
+                    + p50Nanos + "ns, p90=" + p90Nanos + "ns, p99=" + p99Nanos
+                    + "ns, p99.9=" + p999Nanos + "ns, max=" + maxNanos + "ns";
+        }
+    }
+}
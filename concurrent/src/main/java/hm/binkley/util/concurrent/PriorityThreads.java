@@ -0,0 +1,100 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import hm.binkley.util.concurrent.CompletableExecutors.PriorityExecutorService;
+import hm.binkley.util.concurrent.CompletableExecutors.UnwrappedCompletableFuture;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+
+import static hm.binkley.util.concurrent.CompletableThreads.completing;
+import static java.util.concurrent.Executors.callable;
+
+/**
+ * {@code PriorityThreads} submits tasks with a priority, for a pool queueing
+ * in {@link #HIGHEST_FIRST} order.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+final class PriorityThreads
+        extends CompletableThreads
+        implements PriorityExecutorService {
+    /** Orders highest priority first; unprioritized tasks have 0. */
+    static final Comparator<Runnable> HIGHEST_FIRST = (a, b) -> Integer
+            .compare(PrioritizedTask.priority(b),
+                    PrioritizedTask.priority(a));
+
+    PriorityThreads(final ExecutorService threads) {
+        super(threads);
+    }
+
+    @Nonnull
+    @Override
+    public <T> CompletableFuture<T> submit(final int priority,
+            @Nonnull final Callable<T> task) {
+        final UnwrappedCompletableFuture<T> cf
+                = new UnwrappedCompletableFuture<>();
+        return cf.runs(new PrioritizedTask(priority, completing(cf, task)),
+                threads);
+    }
+
+    @Nonnull
+    @Override
+    public <T> CompletableFuture<T> submit(final int priority,
+            @Nonnull final Runnable task, @Nullable final T result) {
+        return submit(priority, callable(task, result));
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<?> submit(final int priority,
+            @Nonnull final Runnable task) {
+        return submit(priority, callable(task));
+    }
+
+    private static final class PrioritizedTask
+            extends FutureTask<Void> {
+        private final int priority;
+
+        private PrioritizedTask(final int priority, final Runnable task) {
+            super(task, null);
+            this.priority = priority;
+        }
+
+        private static int priority(final Runnable task) {
+            return task instanceof PrioritizedTask
+                    ? ((PrioritizedTask) task).priority : 0;
+        }
+    }
+}
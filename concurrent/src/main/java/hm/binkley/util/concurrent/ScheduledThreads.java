@@ -0,0 +1,226 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import hm.binkley.util.concurrent.CompletableExecutors.CompletableScheduledExecutorService;
+import hm.binkley.util.concurrent.CompletableExecutors.CompletableScheduledFuture;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongUnaryOperator;
+
+import static hm.binkley.util.concurrent.CompletableThreads.completing;
+import static java.util.concurrent.Executors.callable;
+
+/**
+ * {@code ScheduledThreads} times delayed and periodic tasks with a {@link
+ * TimingWheel}, running them when due in the wrapped execution service.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+final class ScheduledThreads
+        extends CompletableThreads
+        implements CompletableScheduledExecutorService {
+    private final TimingWheel<Fire> wheel;
+
+    ScheduledThreads(final ExecutorService threads,
+            final TimingWheel<Fire> wheel) {
+        super(threads);
+        this.wheel = wheel;
+    }
+
+    @Nonnull
+    @Override
+    public CompletableScheduledFuture<?> schedule(
+            @Nonnull final Runnable command, final long delay,
+            @Nonnull final TimeUnit unit) {
+        return schedule(callable(command), delay, unit);
+    }
+
+    @Nonnull
+    @Override
+    public <V> CompletableScheduledFuture<V> schedule(
+            @Nonnull final Callable<V> callable, final long delay,
+            @Nonnull final TimeUnit unit) {
+        final long delayNanos = unit.toNanos(delay);
+        final CompletableScheduledFuture<V> cf
+                = new CompletableScheduledFuture<>(delayNanos);
+        final Runnable completing = completing(cf, callable);
+        return schedule(cf,
+                () -> cf.runs(new FutureTask<>(completing, null), threads),
+                delayNanos);
+    }
+
+    @Nonnull
+    @Override
+    public CompletableScheduledFuture<?> scheduleAtFixedRate(
+            @Nonnull final Runnable command, final long initialDelay,
+            final long period, @Nonnull final TimeUnit unit) {
+        if (0 >= period)
+            throw new IllegalArgumentException(
+                    "Non-positive period: " + period);
+        final long periodNanos = unit.toNanos(period);
+        return repeat(command, unit.toNanos(initialDelay),
+                previous -> previous + periodNanos);
+    }
+
+    @Nonnull
+    @Override
+    public CompletableScheduledFuture<?> scheduleWithFixedDelay(
+            @Nonnull final Runnable command, final long initialDelay,
+            final long delay, @Nonnull final TimeUnit unit) {
+        if (0 >= delay)
+            throw new IllegalArgumentException(
+                    "Non-positive delay: " + delay);
+        final long delayNanos = unit.toNanos(delay);
+        return repeat(command, unit.toNanos(initialDelay),
+                previous -> System.nanoTime() + delayNanos);
+    }
+
+    /** Cancels tasks not yet due, and shuts down. */
+    @Override
+    public void close() {
+        shutdown();
+    }
+
+    /** Cancels tasks not yet due, and shuts down. */
+    @Override
+    public void shutdown() {
+        threads.shutdown();
+        for (final Fire unfired : wheel.stop())
+            unfired.cf.cancel(false);
+    }
+
+    /** Cancels tasks not yet due, and shuts down now. */
+    @Nonnull
+    @Override
+    public List<Runnable> shutdownNow() {
+        final List<Runnable> unrun = threads.shutdownNow();
+        for (final Fire unfired : wheel.stop())
+            unfired.cf.cancel(false);
+        return unrun;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return wheel.isTerminated() && threads.isTerminated();
+    }
+
+    private <V> CompletableScheduledFuture<V> schedule(
+            final CompletableScheduledFuture<V> cf, final Runnable action,
+            final long delayNanos) {
+        if (threads.isShutdown())
+            throw new RejectedExecutionException(
+                    "Executor shut down: " + this);
+        final TimingWheel<Fire>.Timeout timeout = wheel
+                .schedule(new Fire(cf, action), delayNanos);
+        cf.timeout = timeout;
+        // Cancelled before the timer knew, or raced with shutdown?
+        if (cf.isCancelled())
+            timeout.cancel();
+        else if (threads.isShutdown() && timeout.cancel())
+            throw new RejectedExecutionException(
+                    "Executor shut down: " + this);
+        return cf;
+    }
+
+    private CompletableScheduledFuture<?> repeat(final Runnable command,
+            final long initialDelayNanos, final LongUnaryOperator next) {
+        final CompletableScheduledFuture<Object> cf
+                = new CompletableScheduledFuture<>(initialDelayNanos);
+        return schedule(cf, new Repeating(cf, command, next),
+                initialDelayNanos);
+    }
+
+    /** Runs the command on each firing, then schedules the next. */
+    private final class Repeating
+            implements Runnable {
+        private final CompletableScheduledFuture<Object> cf;
+        private final Runnable command;
+        private final LongUnaryOperator next;
+
+        private Repeating(final CompletableScheduledFuture<Object> cf,
+                final Runnable command, final LongUnaryOperator next) {
+            this.cf = cf;
+            this.command = command;
+            this.next = next;
+        }
+
+        @Override
+        public void run() {
+            cf.runs(new FutureTask<>(this::runOnce, null), threads);
+        }
+
+        private void runOnce() {
+            try {
+                command.run();
+            } catch (final RuntimeException e) {
+                cf.completeExceptionally(e);
+                return;
+            }
+            if (cf.isDone())
+                return;
+            cf.deadlineNanos = next.applyAsLong(cf.deadlineNanos);
+            try {
+                schedule(cf, this,
+                        cf.deadlineNanos - System.nanoTime());
+            } catch (final RejectedExecutionException e) {
+                cf.cancel(false);
+            }
+        }
+    }
+
+    /** Hands a due task from the timer thread to the executor. */
+    static final class Fire
+            implements Runnable {
+        private final CompletableFuture<?> cf;
+        private final Runnable action;
+
+        private Fire(final CompletableFuture<?> cf, final Runnable action) {
+            this.cf = cf;
+            this.action = action;
+        }
+
+        @Override
+        public void run() {
+            if (cf.isDone())
+                return;
+            try {
+                action.run();
+            } catch (final RejectedExecutionException e) {
+                cf.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@code StripedBlockingQueue} is an unbounded blocking queue spreading
+ * elements over lock-free stripes, so that many producers do not contend
+ * on one lock as with {@link java.util.concurrent.LinkedBlockingQueue}.
+ * Each thread offers to and polls from its home stripe first; consumers
+ * finding their stripe empty steal from the others in turn.
+ * <p>
+ * Consumers lock only to wait when all stripes are empty, and producers
+ * lock only to wake such a waiting consumer.  Busy queues therefore run
+ * without locking.
+ * <p>
+ * Order is first-in, first-out within each stripe, but not across
+ * stripes: elements from different producers may leave the queue in
+ * any order.  {@link #size()} walks all elements, so is meant for
+ * occasional monitoring.
+ *
+ * @param <E> the element type
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class StripedBlockingQueue<E>
+        extends AbstractQueue<E>
+        implements BlockingQueue<E> {
+    private static final int MAX_STRIPES = 1 << 16;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ConcurrentLinkedQueue<E>[] stripes;
+    private final int mask;
+
+    /**
+     * Creates a new {@code StripedBlockingQueue} with a stripe per
+     * processor.
+     */
+    public StripedBlockingQueue() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new {@code StripedBlockingQueue}.
+     *
+     * @param stripes the number of stripes, positive; rounded up to a power
+     * of two
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public StripedBlockingQueue(final int stripes) {
+        if (1 > stripes)
+            throw new IllegalArgumentException(
+                    "Non-positive stripes: " + stripes);
+        final int n = 1 == stripes ? 1
+                : Integer.highestOneBit(Math.min(stripes, MAX_STRIPES) - 1)
+                        << 1;
+        this.stripes = new ConcurrentLinkedQueue[n];
+        for (int i = 0; i < n; ++i)
+            this.stripes[i] = new ConcurrentLinkedQueue<>();
+        mask = n - 1;
+    }
+
+    /**
+     * Gets the number of stripes.
+     *
+     * @return the stripe count, a power of two
+     */
+    public int stripes() {
+        return stripes.length;
+    }
+
+    @Override
+    public boolean offer(@Nonnull final E e) {
+        stripes[home()].offer(requireNonNull(e));
+        // Pairs with the increment in awaitElement: either the consumer
+        // sees the element, or we see the consumer
+        if (0 < waiting.get()) {
+            lock.lock();
+            try {
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return true;
+    }
+
+    /** Never waits, as the queue is unbounded. */
+    @Override
+    public boolean offer(@Nonnull final E e, final long timeout,
+            @Nonnull final TimeUnit unit) {
+        return offer(e);
+    }
+
+    /** Never waits, as the queue is unbounded. */
+    @Override
+    public void put(@Nonnull final E e) {
+        offer(e);
+    }
+
+    @Override
+    public E poll() {
+        final int home = home();
+        for (int i = 0; i < stripes.length; ++i) {
+            final E e = stripes[(home + i) & mask].poll();
+            if (null != e)
+                return e;
+        }
+        return null;
+    }
+
+    @Override
+    public E poll(final long timeout, @Nonnull final TimeUnit unit)
+            throws InterruptedException {
+        final E e = poll();
+        return null != e ? e : awaitElement(unit.toNanos(timeout));
+    }
+
+    @Nonnull
+    @Override
+    public E take()
+            throws InterruptedException {
+        final E e = poll();
+        return null != e ? e : awaitElement(Long.MAX_VALUE);
+    }
+
+    @Override
+    public E peek() {
+        final int home = home();
+        for (int i = 0; i < stripes.length; ++i) {
+            final E e = stripes[(home + i) & mask].peek();
+            if (null != e)
+                return e;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (final ConcurrentLinkedQueue<E> stripe : stripes)
+            if (!stripe.isEmpty())
+                return false;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        long n = 0;
+        for (final ConcurrentLinkedQueue<E> stripe : stripes)
+            n += stripe.size();
+        return (int) Math.min(n, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        if (null == o)
+            return false;
+        for (final ConcurrentLinkedQueue<E> stripe : stripes)
+            if (stripe.contains(o))
+                return true;
+        return false;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        if (null == o)
+            return false;
+        for (final ConcurrentLinkedQueue<E> stripe : stripes)
+            if (stripe.remove(o))
+                return true;
+        return false;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(@Nonnull final Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(@Nonnull final Collection<? super E> c,
+            final int maxElements) {
+        if (this == c)
+            throw new IllegalArgumentException("Draining to self");
+        int n = 0;
+        for (final ConcurrentLinkedQueue<E> stripe : stripes)
+            for (E e; n < maxElements && null != (e = stripe.poll()); ++n)
+                c.add(e);
+        return n;
+    }
+
+    @Override
+    public void clear() {
+        for (final ConcurrentLinkedQueue<E> stripe : stripes)
+            stripe.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Iterates stripe by stripe, and is weakly consistent as with {@link
+     * ConcurrentLinkedQueue#iterator()}.  Removal through the iterator
+     * removes from this queue.
+     */
+    @Nonnull
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int stripe;
+            private Iterator<E> it = stripes[0].iterator();
+            /** Returned the last element, as {@link #hasNext()} moves on. */
+            private Iterator<E> lastIt;
+
+            @Override
+            public boolean hasNext() {
+                while (!it.hasNext()) {
+                    if (stripes.length == ++stripe)
+                        return false;
+                    it = stripes[stripe].iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                lastIt = it;
+                return it.next();
+            }
+
+            @Override
+            public void remove() {
+                if (null == lastIt)
+                    throw new IllegalStateException();
+                lastIt.remove();
+                lastIt = null;
+            }
+        };
+    }
+
+    /**
+     * Waits under the lock for an element, rechecking after announcing
+     * ourselves to producers.
+     */
+    private E awaitElement(long nanos)
+            throws InterruptedException {
+        lock.lockInterruptibly();
+        waiting.incrementAndGet();
+        try {
+            for (;;) {
+                final E e = poll();
+                if (null != e)
+                    return e;
+                if (0 >= nanos)
+                    return null;
+                nanos = Long.MAX_VALUE == nanos ? awaitForever()
+                        : notEmpty.awaitNanos(nanos);
+            }
+        } finally {
+            waiting.decrementAndGet();
+            lock.unlock();
+        }
+    }
+
+    private long awaitForever()
+            throws InterruptedException {
+        notEmpty.await();
+        return Long.MAX_VALUE;
+    }
+
+    /** Spreads threads over stripes by thread ID. */
+    private int home() {
+        final long id = Thread.currentThread().getId();
+        return (int) (id * 0x9E3779B97F4A7C15L >>> 32) & mask;
+    }
+}
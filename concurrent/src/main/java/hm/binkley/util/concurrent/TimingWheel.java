@@ -0,0 +1,339 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * {@code TimingWheel} fires tasks after a delay using hierarchical timing
+ * wheels.  Adding and cancelling a timeout cost <em>O(1)</em> whatever the
+ * number pending, where a priority queue costs <em>O(log n)</em>.  Timeouts
+ * fire on whole ticks, never early.
+ * <p>
+ * The lowest wheel has one bucket per tick; each higher wheel has buckets
+ * spanning a whole turn of the wheel below.  As time reaches a higher
+ * bucket, its timeouts cascade into lower wheels.  A single timer thread
+ * owns the wheels: other threads hand it new and cancelled timeouts through
+ * lock-free queues.  Fired tasks run on the timer thread, so should be
+ * brief, handing off real work to an executor.
+ *
+ * @param <T> the task type
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+final class TimingWheel<T extends Runnable> {
+    private static final int PENDING = 0;
+    private static final int FIRED = 1;
+    private static final int CANCELLED = 2;
+
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final List<Bucket[]> wheels = new ArrayList<>();
+    private final long tickNanos;
+    private final int wheelSize;
+    private final long startNanos;
+    private final Thread timer;
+    private volatile boolean idle;
+    private volatile boolean stopped;
+    /** Last tick processed, timer thread only. */
+    private long now;
+    /** Timeouts in buckets, timer thread only. */
+    private int pending;
+
+    /**
+     * Creates a new {@code TimingWheel}.  Call {@link #start()} to begin
+     * firing timeouts.
+     *
+     * @param tick the tick duration, positive
+     * @param unit the tick time unit, never missing
+     * @param wheelSize the buckets per wheel, at least 2
+     * @param threads the factory for the timer thread, never missing
+     */
+    TimingWheel(final long tick, @Nonnull final TimeUnit unit,
+            final int wheelSize, @Nonnull final ThreadFactory threads) {
+        tickNanos = unit.toNanos(tick);
+        if (1 > tickNanos)
+            throw new IllegalArgumentException(
+                    "Non-positive tick: " + tick + ' ' + unit);
+        if (2 > wheelSize)
+            throw new IllegalArgumentException(
+                    "Wheel size below 2: " + wheelSize);
+        this.wheelSize = wheelSize;
+        startNanos = nanoTime();
+        timer = threads.newThread(this::run);
+    }
+
+    /** Starts the timer thread. */
+    void start() {
+        timer.start();
+    }
+
+    /**
+     * Fires <var>task</var> after <var>delayNanos</var>, rounded up to the
+     * next tick.
+     *
+     * @param task the task, never missing
+     * @param delayNanos the delay in nanoseconds
+     *
+     * @return the pending timeout, never missing
+     */
+    @Nonnull
+    Timeout schedule(@Nonnull final T task, final long delayNanos) {
+        final long elapsed = nanoTime() - startNanos;
+        final long delay = Math.max(0L, delayNanos);
+        // Rounds up, saturating rather than overflowing
+        final long deadline = delay > Long.MAX_VALUE - elapsed
+                ? Long.MAX_VALUE / tickNanos
+                : (elapsed + delay + tickNanos - 1) / tickNanos;
+        final Timeout timeout = new Timeout(task, deadline);
+        added.add(timeout);
+        if (idle)
+            LockSupport.unpark(timer);
+        return timeout;
+    }
+
+    /**
+     * Stops the timer thread, cancelling pending timeouts.
+     *
+     * @return the tasks of cancelled timeouts, never missing
+     */
+    @Nonnull
+    List<T> stop() {
+        stopped = true;
+        LockSupport.unpark(timer);
+        if (Thread.currentThread() != timer)
+            try {
+                timer.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        final List<T> unfired = new ArrayList<>();
+        for (final Bucket[] wheel : wheels)
+            for (final Bucket bucket : wheel)
+                for (Timeout t = bucket.detach(); null != t; t = t.next)
+                    if (t.state.compareAndSet(PENDING, CANCELLED))
+                        unfired.add(t.task);
+        for (Timeout t = added.poll(); null != t; t = added.poll())
+            if (t.state.compareAndSet(PENDING, CANCELLED))
+                unfired.add(t.task);
+        return unfired;
+    }
+
+    /**
+     * Checks if the timer thread has finished.
+     *
+     * @return {@code true} if stopped and finished
+     */
+    boolean isTerminated() {
+        return stopped && !timer.isAlive();
+    }
+
+    private void run() {
+        while (!stopped) {
+            // With empty wheels, skip elapsed ticks rather than walk them
+            if (0 == pending)
+                now = currentTick();
+            transfer();
+            if (0 == pending) {
+                idle = true;
+                if (added.isEmpty() && !stopped)
+                    LockSupport.park(this);
+                idle = false;
+                continue;
+            }
+            for (final long tick = currentTick(); now < tick; )
+                advance(++now);
+            final long untilNext = startNanos + (now + 1) * tickNanos
+                    - nanoTime();
+            if (0 < untilNext)
+                LockSupport.parkNanos(this, untilNext);
+        }
+    }
+
+    private long currentTick() {
+        return (nanoTime() - startNanos) / tickNanos;
+    }
+
+    private void transfer() {
+        for (Timeout t = cancelled.poll(); null != t; t = cancelled.poll())
+            if (null != t.bucket) {
+                t.bucket.remove(t);
+                --pending;
+            }
+        for (Timeout t = added.poll(); null != t; t = added.poll())
+            if (PENDING == t.state.get())
+                add(t);
+    }
+
+    private void add(final Timeout timeout) {
+        final long deadline = timeout.deadline;
+        if (deadline <= now) {
+            fire(timeout);
+            return;
+        }
+        int level = 0;
+        long span = 1L;
+        while (deadline / span - now / span >= wheelSize
+                && span <= Long.MAX_VALUE / wheelSize) {
+            span *= wheelSize;
+            ++level;
+        }
+        wheel(level)[(int) (deadline / span % wheelSize)].add(timeout);
+        ++pending;
+    }
+
+    private void advance(final long tick) {
+        // Cascade higher wheels first: they may refill the lowest bucket
+        long span = 1L;
+        for (int level = 1; level < wheels.size(); ++level) {
+            span *= wheelSize;
+            if (0 != tick % span)
+                break;
+            cascade(wheels.get(level)[(int) (tick / span % wheelSize)]);
+        }
+        if (wheels.isEmpty())
+            return;
+        for (Timeout t = wheels.get(0)[(int) (tick % wheelSize)]
+                .detach(); null != t; ) {
+            final Timeout next = t.next;
+            --pending;
+            fire(t);
+            t = next;
+        }
+    }
+
+    private void cascade(final Bucket bucket) {
+        for (Timeout t = bucket.detach(); null != t; ) {
+            final Timeout next = t.next;
+            --pending;
+            add(t);
+            t = next;
+        }
+    }
+
+    private void fire(final Timeout timeout) {
+        if (!timeout.state.compareAndSet(PENDING, FIRED))
+            return;
+        try {
+            timeout.task.run();
+        } catch (final RuntimeException e) {
+            final Thread self = Thread.currentThread();
+            self.getUncaughtExceptionHandler().uncaughtException(self, e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Bucket[] wheel(final int level) {
+        while (wheels.size() <= level) {
+            // Inner classes of generic classes need raw arrays
+            final Bucket[] wheel = new TimingWheel.Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; ++i)
+                wheel[i] = new Bucket();
+            wheels.add(wheel);
+        }
+        return wheels.get(level);
+    }
+
+    /** {@code Timeout} is a pending task of a {@code TimingWheel}. */
+    final class Timeout {
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private final T task;
+        private final long deadline;
+        // Timer thread only
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(final T task, final long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels this timeout if not yet fired.
+         *
+         * @return {@code true} if cancelled by this call
+         */
+        boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED))
+                return false;
+            cancelled.add(this);
+            return true;
+        }
+    }
+
+    /** Doubly-linked, so removing a cancelled timeout is O(1). */
+    private final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(final Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (null == tail)
+                head = timeout;
+            else
+                tail.next = timeout;
+            tail = timeout;
+        }
+
+        private void remove(final Timeout timeout) {
+            if (null == timeout.prev)
+                head = timeout.next;
+            else
+                timeout.prev.next = timeout.next;
+            if (null == timeout.next)
+                tail = timeout.prev;
+            else
+                timeout.next.prev = timeout.prev;
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        /** Empties this bucket, returning the former head. */
+        private Timeout detach() {
+            final Timeout first = head;
+            for (Timeout t = first; null != t; t = t.next)
+                t.bucket = null;
+            head = tail = null;
+            return first;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import hm.binkley.util.concurrent.CompletableExecutors.BatchFuture;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static hm.binkley.util.concurrent.CompletableThreads.submitEach;
+import static java.util.Collections.newSetFromMap;
+import static java.util.concurrent.TimeUnit.DAYS;
+
+/**
+ * {@code VirtualThreads} runs each task in its own thread, optionally
+ * waiting for one of a fixed number of permits to run.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+final class VirtualThreads
+        extends CompletableThreads {
+    private final Semaphore permits;
+    private final Set<Waiting> waiting = newSetFromMap(
+            new ConcurrentHashMap<>());
+
+    VirtualThreads(final ExecutorService threads,
+            @Nullable final Semaphore permits) {
+        super(threads);
+        this.permits = permits;
+    }
+
+    @Nonnull
+    @Override
+    public <T> CompletableFuture<T> submit(
+            @Nonnull final Callable<T> task) {
+        return super.submit(limited(task));
+    }
+
+    /** Runs each task of the batch in its own virtual thread. */
+    @Nonnull
+    @Override
+    public <T> BatchFuture<T> submitAll(
+            @Nonnull final Collection<? extends Callable<T>> tasks) {
+        return submitEach(this, tasks);
+    }
+
+    @Override
+    public void execute(@Nonnull final Runnable command) {
+        if (null == permits) {
+            threads.execute(command);
+            return;
+        }
+        final Waiting task = new Waiting(command);
+        waiting.add(task);
+        try {
+            threads.execute(task);
+        } catch (final RejectedExecutionException e) {
+            waiting.remove(task);
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Claims commands still waiting for a permit before interrupting
+     * them, and returns them with those never started.
+     */
+    @Nonnull
+    @Override
+    public List<Runnable> shutdownNow() {
+        final List<Runnable> unstarted = new ArrayList<>();
+        for (final Waiting task : waiting)
+            if (waiting.remove(task))
+                unstarted.add(task.command);
+        unstarted.addAll(threads.shutdownNow());
+        return unstarted;
+    }
+
+    /**
+     * Shuts down and waits for all tasks to finish.  If interrupted while
+     * waiting, cancels running tasks and continues waiting, then restores
+     * the interrupt.
+     */
+    @Override
+    public void close() {
+        threads.shutdown();
+        boolean interrupted = false;
+        while (!threads.isTerminated())
+            try {
+                threads.awaitTermination(1L, DAYS);
+            } catch (final InterruptedException e) {
+                if (!interrupted) {
+                    shutdownNow();
+                    interrupted = true;
+                }
+            }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    @Nonnull
+    @Override
+    public <T> List<Future<T>> invokeAll(
+            @Nonnull final Collection<? extends Callable<T>> tasks)
+            throws InterruptedException {
+        return threads.invokeAll(limited(tasks));
+    }
+
+    @Nonnull
+    @Override
+    public <T> List<Future<T>> invokeAll(
+            @Nonnull final Collection<? extends Callable<T>> tasks,
+            final long timeout, @Nonnull final TimeUnit unit)
+            throws InterruptedException {
+        return threads.invokeAll(limited(tasks), timeout, unit);
+    }
+
+    @Nonnull
+    @Override
+    public <T> T invokeAny(
+            @Nonnull final Collection<? extends Callable<T>> tasks)
+            throws InterruptedException, ExecutionException {
+        return threads.invokeAny(limited(tasks));
+    }
+
+    @Override
+    public <T> T invokeAny(
+            @Nonnull final Collection<? extends Callable<T>> tasks,
+            final long timeout, @Nonnull final TimeUnit unit)
+            throws InterruptedException, ExecutionException,
+            TimeoutException {
+        return threads.invokeAny(limited(tasks), timeout, unit);
+    }
+
+    /**
+     * Waits for a permit inside the task, so cancelling interrupts the
+     * wait.
+     */
+    private <T> Callable<T> limited(final Callable<T> task) {
+        if (null == permits)
+            return task;
+        return () -> {
+            permits.acquire();
+            try {
+                return task.call();
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    private <T> List<Callable<T>> limited(
+            final Collection<? extends Callable<T>> tasks) {
+        final List<Callable<T>> limited = new ArrayList<>(tasks.size());
+        for (final Callable<T> task : tasks)
+            limited.add(limited(task));
+        return limited;
+    }
+
+    /**
+     * Waits for a permit in its own virtual thread, then runs the
+     * command unless {@link #shutdownNow()} claimed it first.
+     */
+    private final class Waiting
+            implements Runnable {
+        private final Runnable command;
+
+        private Waiting(final Runnable command) {
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            boolean permitted = false;
+            try {
+                permits.acquire();
+                permitted = true;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!waiting.remove(this)) {
+                if (permitted)
+                    permits.release();
+                return;
+            }
+            // Interrupted other than by shutdown: run interrupted
+            // rather than drop the command
+            try {
+                command.run();
+            } finally {
+                if (permitted)
+                    permits.release();
+            }
+        }
+    }
+
+    /**
+     * Uses {@code Executors.newVirtualThreadPerTaskExecutor()} if present
+     * (JDK 21 or later), else {@code null}.
+     */
+    @Nullable
+    static ExecutorService virtualThreadPerTask() {
+        try {
+            return (ExecutorService) Executors.class.
+                    getMethod("newVirtualThreadPerTaskExecutor").
+                    invoke(null);
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        } catch (final InvocationTargetException e) {
+            // Preview JDKs without preview enabled
+            if (e.getCause() instanceof UnsupportedOperationException)
+                return null;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
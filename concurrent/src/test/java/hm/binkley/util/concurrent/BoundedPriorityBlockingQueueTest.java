@@ -0,0 +1,91 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Comparator.comparing;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@code BoundedPriorityBlockingQueueTest} tests {@link
+ * BoundedPriorityBlockingQueue}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class BoundedPriorityBlockingQueueTest {
+    @Test
+    public void shouldKeepArrivalOrderForEqualPriority() {
+        final BoundedPriorityBlockingQueue<String> queue
+                = new BoundedPriorityBlockingQueue<>(4, comparing(String::length));
+        queue.offer("bb");
+        queue.offer("a");
+        queue.offer("cc");
+        queue.offer("d");
+        final List<String> drained = new ArrayList<>();
+        queue.drainTo(drained);
+
+        assertThat(drained, is(equalTo(asList("a", "d", "bb", "cc"))));
+    }
+
+    @Test
+    public void shouldRefuseWhenFull() {
+        final BoundedPriorityBlockingQueue<String> queue
+                = new BoundedPriorityBlockingQueue<>(1, comparing(String::length));
+        queue.offer("a");
+
+        assertThat(queue.offer("b"), is(false));
+    }
+
+    @Test
+    public void shouldTimeOutWhenFull()
+            throws InterruptedException {
+        final BoundedPriorityBlockingQueue<String> queue
+                = new BoundedPriorityBlockingQueue<>(1, comparing(String::length));
+        queue.offer("a");
+
+        assertThat(queue.offer("b", 1, MILLISECONDS), is(false));
+    }
+
+    @Test
+    public void shouldMakeRoomOnRemove() {
+        final BoundedPriorityBlockingQueue<String> queue
+                = new BoundedPriorityBlockingQueue<>(1, comparing(String::length));
+        queue.offer("a");
+        queue.remove("a");
+
+        assertThat(queue.offer("b"), is(true));
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import hm.binkley.util.concurrent.CompletableExecutors.CompletableExecutorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static hm.binkley.util.Mixin.newMixin;
+import static hm.binkley.util.concurrent.CompletableExecutors.completable;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+/**
+ * {@code CompletableExecutorsBenchmark} measures the per-submit cost of
+ * {@link CompletableExecutors#completable(ExecutorService)} against the
+ * former mixin proxy.  Tasks run in the submitting thread, so the
+ * measurement is of dispatch and not of thread handoff.
+ * <p>
+ * Run with {@code mvn -P jmh clean test-compile exec:java
+ * -Dexec.classpathScope=test
+ * -Dexec.mainClass=hm.binkley.util.concurrent.CompletableExecutorsBenchmark}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompletableExecutorsBenchmark {
+    private static final Callable<Integer> TASK = () -> 3;
+
+    private CompletableExecutorService direct;
+    private CompletableExecutorService proxied;
+
+    public static void main(final String... args)
+            throws RunnerException {
+        new Runner(new OptionsBuilder().
+                include(CompletableExecutorsBenchmark.class.getSimpleName()).
+                build()).
+                run();
+    }
+
+    @Setup
+    public void setUp() {
+        final ExecutorService threads = new SameThreadExecutorService();
+        direct = completable(threads);
+        proxied = newMixin(CompletableExecutorService.class,
+                new ProxiedOverrides(threads), threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        direct.close();
+        proxied.close();
+    }
+
+    @Benchmark
+    public CompletableFuture<Integer> direct() {
+        return direct.submit(TASK);
+    }
+
+    @Benchmark
+    public CompletableFuture<Integer> proxied() {
+        return proxied.submit(TASK);
+    }
+
+    /** The former mixin overrides, kept for comparison. */
+    public static final class ProxiedOverrides {
+        private final ExecutorService threads;
+
+        private ProxiedOverrides(final ExecutorService threads) {
+            this.threads = threads;
+        }
+
+        @Nonnull
+        public <T> CompletableFuture<T> submit(
+                @Nonnull final Callable<T> task) {
+            final CompletableFuture<T> cf = new CompletableFuture<>();
+            threads.submit(() -> {
+                try {
+                    cf.complete(task.call());
+                } catch (final CancellationException e) {
+                    cf.cancel(true);
+                } catch (final Exception e) {
+                    cf.completeExceptionally(e);
+                }
+            });
+            return cf;
+        }
+
+        public void close() {
+            threads.shutdown();
+        }
+    }
+
+    private static final class SameThreadExecutorService
+            extends AbstractExecutorService {
+        private volatile boolean shutdown;
+
+        @Override
+        public void execute(@Nonnull final Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Nonnull
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout,
+                @Nonnull final TimeUnit unit) {
+            return shutdown;
+        }
+    }
+}
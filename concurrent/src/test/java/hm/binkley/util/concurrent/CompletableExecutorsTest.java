@@ -27,7 +27,14 @@
 
 package hm.binkley.util.concurrent;
 
+import hm.binkley.util.concurrent.CompletableExecutors.AdaptiveExecutorService;
+import hm.binkley.util.concurrent.CompletableExecutors.BatchFuture;
 import hm.binkley.util.concurrent.CompletableExecutors.CompletableExecutorService;
+import hm.binkley.util.concurrent.CompletableExecutors.CompletableScheduledExecutorService;
+import hm.binkley.util.concurrent.CompletableExecutors.CompletableScheduledFuture;
+import hm.binkley.util.concurrent.CompletableExecutors.DeadlineExecutorService;
+import hm.binkley.util.concurrent.CompletableExecutors.InstrumentedExecutorService;
+import hm.binkley.util.concurrent.CompletableExecutors.PriorityExecutorService;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -37,16 +44,39 @@ import org.junit.rules.ExpectedException;
 import org.junit.rules.TestRule;
 import org.junit.rules.Timeout;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.TimeoutException;
 
+import static hm.binkley.util.concurrent.CompletableExecutors.adaptive;
+import static hm.binkley.util.concurrent.CompletableExecutors.blocking;
+import static hm.binkley.util.concurrent.CompletableExecutors.bounded;
+import static hm.binkley.util.concurrent.CompletableExecutors.callerRuns;
 import static hm.binkley.util.concurrent.CompletableExecutors.completable;
+import static hm.binkley.util.concurrent.CompletableExecutors.deadlined;
+import static hm.binkley.util.concurrent.CompletableExecutors.failFast;
+import static hm.binkley.util.concurrent.CompletableExecutors.instrumented;
+import static hm.binkley.util.concurrent.CompletableExecutors.prioritized;
+import static hm.binkley.util.concurrent.CompletableExecutors.scheduled;
+import static hm.binkley.util.concurrent.CompletableExecutors.striped;
+import static hm.binkley.util.concurrent.CompletableExecutors.virtualThreads;
+import static java.util.Arrays.asList;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
@@ -131,6 +161,45 @@ public final class CompletableExecutorsTest {
         future.join();
     }
 
+    @Test
+    public void shouldInterruptTaskOnCancel()
+            throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final CompletableFuture<Object> future = threads.submit(() -> {
+            started.countDown();
+            try {
+                SECONDS.sleep(10);
+            } catch (final InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+        started.await();
+        future.cancel(true);
+
+        assertThat(interrupted.await(1, SECONDS), is(true));
+    }
+
+    @Test
+    public void shouldDequeueTaskOnCancel()
+            throws InterruptedException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0L,
+                MILLISECONDS, new ArrayBlockingQueue<>(1));
+        try (final CompletableExecutorService bounded = completable(pool)) {
+            bounded.submit(() -> {
+                gate.await();
+                return null;
+            });
+            bounded.submit(() -> null).cancel(true);
+
+            assertThat(pool.getQueue().isEmpty(), is(true));
+        } finally {
+            gate.countDown();
+        }
+    }
+
     @Test
     public void shouldInterruptGetExternally()
             throws InterruptedException, ExecutionException {
@@ -222,6 +291,398 @@ public final class CompletableExecutorsTest {
         threads.awaitTermination(1, SECONDS);
     }
 
+    @Test
+    public void shouldFailFastWhenFull()
+            throws InterruptedException {
+        thrown.expect(RejectedExecutionException.class);
+
+        final CountDownLatch gate = new CountDownLatch(1);
+        try (final CompletableExecutorService bounded = bounded(1, 1,
+                failFast())) {
+            bounded.submit(() -> {
+                gate.await();
+                return null;
+            });
+            bounded.submit(() -> null);
+            bounded.submit(() -> null);
+        } finally {
+            gate.countDown();
+        }
+    }
+
+    @Test
+    public void shouldTimeOutBlockingWhenFull()
+            throws InterruptedException {
+        thrown.expect(RejectedExecutionException.class);
+
+        final CountDownLatch gate = new CountDownLatch(1);
+        try (final CompletableExecutorService bounded = bounded(1, 1,
+                blocking(10, MILLISECONDS))) {
+            bounded.submit(() -> {
+                gate.await();
+                return null;
+            });
+            bounded.submit(() -> null);
+            bounded.submit(() -> null);
+        } finally {
+            gate.countDown();
+        }
+    }
+
+    @Test
+    public void shouldRunInCallerWhenFull()
+            throws InterruptedException, ExecutionException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        try (final CompletableExecutorService bounded = bounded(1, 1,
+                callerRuns())) {
+            bounded.submit(() -> {
+                gate.await();
+                return null;
+            });
+            bounded.submit(() -> null);
+            assertThat(bounded.submit(Thread::currentThread).get(),
+                    is(equalTo(Thread.currentThread())));
+        } finally {
+            gate.countDown();
+        }
+    }
+
+    @Test
+    public void shouldRejectInCallerWhenShutDown() {
+        thrown.expect(RejectedExecutionException.class);
+
+        final CompletableExecutorService bounded = bounded(1, 1,
+                callerRuns());
+        bounded.shutdown();
+        bounded.submit(() -> null);
+    }
+
+    @Test
+    public void shouldRejectWhileBlockingWhenShutDown() {
+        thrown.expect(RejectedExecutionException.class);
+
+        final CompletableExecutorService bounded = bounded(1, 1,
+                blocking(10, MILLISECONDS));
+        bounded.shutdown();
+        bounded.submit(() -> null);
+    }
+
+    @Test
+    public void shouldRunHighestPriorityFirst()
+            throws InterruptedException, ExecutionException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final List<Integer> ran = new ArrayList<>();
+        try (final PriorityExecutorService prioritized = prioritized(1, 4,
+                failFast())) {
+            prioritized.submit(() -> {
+                gate.await();
+                return null;
+            });
+            prioritized.submit(1, () -> ran.add(1));
+            prioritized.submit(() -> ran.add(0));
+            final CompletableFuture<?> last = prioritized
+                    .submit(2, () -> ran.add(2));
+            prioritized.submit(2, () -> ran.add(3));
+            gate.countDown();
+            last.get();
+            prioritized.shutdown();
+            prioritized.awaitTermination(1, SECONDS);
+        }
+        assertThat(ran, is(equalTo(asList(2, 3, 1, 0))));
+    }
+
+    @Test
+    public void shouldLimitVirtualThreads() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger most = new AtomicInteger();
+        try (final CompletableExecutorService virtual = virtualThreads(2)) {
+            for (int i = 0; i < 6; ++i)
+                virtual.submit(() -> {
+                    most.accumulateAndGet(running.incrementAndGet(),
+                            Math::max);
+                    MILLISECONDS.sleep(10);
+                    return running.decrementAndGet();
+                });
+        }
+
+        assertThat(most.get(), is(equalTo(2)));
+    }
+
+    @Test
+    public void shouldReturnVirtualTasksWaitingForPermitsOnShutdownNow()
+            throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CompletableExecutorService virtual = virtualThreads(1);
+        virtual.execute(() -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+        final Runnable waiting = () -> { };
+        virtual.execute(waiting);
+
+        assertThat(virtual.shutdownNow(), contains(waiting));
+    }
+
+    @Test
+    public void shouldWaitForVirtualThreadsOnClose() {
+        final CompletableFuture<Object> future;
+        try (final CompletableExecutorService virtual = virtualThreads()) {
+            future = virtual.submit(() -> {
+                pause();
+                return null;
+            });
+        }
+
+        assertThat(future.isDone(), is(true));
+    }
+
+    @Test
+    public void shouldCountTasks()
+            throws InterruptedException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final InstrumentedExecutorService instrumented = instrumented(
+                bounded(1, 1, failFast()));
+        try {
+            instrumented.submit(() -> {
+                gate.await();
+                return null;
+            });
+            instrumented.submit(() -> null).cancel(true);
+            instrumented.submit(() -> {throw new Foobar();});
+            try {
+                instrumented.submit(() -> null);
+            } catch (final RejectedExecutionException ignored) {
+            }
+        } finally {
+            gate.countDown();
+            instrumented.close();
+            instrumented.awaitTermination(1, SECONDS);
+        }
+        final ExecutorMetrics.Snapshot metrics = instrumented.metrics()
+                .snapshot();
+
+        assertThat(metrics.getSubmitted(), is(equalTo(4L)));
+        assertThat(metrics.getCompleted(), is(equalTo(1L)));
+        assertThat(metrics.getFailed(), is(equalTo(1L)));
+        assertThat(metrics.getCancelled(), is(equalTo(1L)));
+        assertThat(metrics.getRejected(), is(equalTo(1L)));
+        assertThat(metrics.getQueued(), is(equalTo(0L)));
+        assertThat(metrics.getRunLatency().getCount(), is(equalTo(2L)));
+    }
+
+    @Test
+    public void shouldSubmitAll()
+            throws InterruptedException, ExecutionException {
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            final int value = i;
+            tasks.add(() -> value);
+        }
+        final List<Integer> values = threads.submitAll(tasks).get();
+
+        assertThat(values.size(), is(equalTo(100)));
+        assertThat(values.get(99), is(equalTo(99)));
+    }
+
+    @Test
+    public void shouldSubmitAllExceptionally() {
+        thrown.expect(CompletionException.class);
+        thrown.expectCause(is(instanceOf(Foobar.class)));
+
+        threads.submitAll(asList(() -> 1, () -> {throw new Foobar();},
+                () -> 3)).join();
+    }
+
+    @Test
+    public void shouldCancelAllTasksOfBatch() {
+        final BatchFuture<Object> batch = threads.submitAll(asList(() -> {
+            pause();
+            return null;
+        }, () -> null));
+        batch.cancel(true);
+
+        assertThat(batch.tasks().get(1).isCancelled(), is(true));
+    }
+
+    @Test
+    public void shouldKeepShutdownInterruptAfterCancelledBatchTask()
+            throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicBoolean released = new AtomicBoolean();
+        final CompletableFuture<Boolean> interrupted
+                = new CompletableFuture<>();
+        final BatchFuture<Object> batch = threads.submitAll(asList(() -> {
+            started.countDown();
+            while (!released.get())
+                Thread.yield();
+            return null;
+        }, () -> interrupted
+                .complete(Thread.currentThread().isInterrupted())));
+        started.await();
+        batch.tasks().get(0).cancel(true);
+        threads.shutdownNow();
+        released.set(true);
+
+        assertThat(interrupted.join(), is(true));
+    }
+
+    @Test
+    public void shouldRunEarliestDeadlineFirst()
+            throws InterruptedException, ExecutionException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final List<Integer> ran = new ArrayList<>();
+        final Instant now = Instant.now();
+        try (final DeadlineExecutorService deadlined = deadlined(1, 4,
+                failFast())) {
+            deadlined.submit(() -> {
+                gate.await();
+                return null;
+            });
+            deadlined.submit(() -> ran.add(0));
+            deadlined.submit(() -> ran.add(2), now.plusSeconds(20));
+            final CompletableFuture<Boolean> last = deadlined
+                    .submit(() -> ran.add(1), now.plusSeconds(10));
+            gate.countDown();
+            last.get();
+            deadlined.shutdown();
+            deadlined.awaitTermination(1, SECONDS);
+        }
+        assertThat(ran, is(equalTo(asList(1, 2, 0))));
+    }
+
+    @Test
+    public void shouldDropExpiredTasks()
+            throws InterruptedException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        try (final DeadlineExecutorService deadlined = deadlined(1, 4,
+                failFast())) {
+            deadlined.submit(() -> {
+                gate.await();
+                return null;
+            });
+            final CompletableFuture<Object> expired = deadlined
+                    .submit(() -> null, Instant.now());
+            gate.countDown();
+            try {
+                expired.get();
+            } catch (final ExecutionException e) {
+                assertThat(e.getCause(), is(instanceOf(TimeoutException.class)));
+            }
+            deadlined.shutdown();
+            deadlined.awaitTermination(1, SECONDS);
+
+            assertThat(deadlined.dropped(), is(equalTo(1L)));
+            assertThat(deadlined.completed(), is(equalTo(1L)));
+        }
+    }
+
+    @Test
+    public void shouldCountBatchTasksAsCompleted()
+            throws InterruptedException, ExecutionException {
+        try (final DeadlineExecutorService deadlined = deadlined(1, 4,
+                failFast())) {
+            deadlined.submitAll(asList(() -> 1, () -> 2)).get();
+            deadlined.shutdown();
+            deadlined.awaitTermination(1, SECONDS);
+
+            assertThat(deadlined.completed(), is(equalTo(2L)));
+        }
+    }
+
+    @Test
+    public void shouldRunStriped()
+            throws ExecutionException, InterruptedException {
+        try (final CompletableExecutorService striped = striped(2)) {
+            assertThat(striped.submit(() -> 3).get(), is(equalTo(3)));
+        }
+    }
+
+    @Test
+    public void shouldRejectBeyondAdaptiveLimit()
+            throws InterruptedException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final AdaptiveExecutorService adaptive = adaptive(threads,
+                new ConcurrencyLimit(1, 1, 1));
+        adaptive.submit(() -> {
+            gate.await();
+            return null;
+        });
+
+        try {
+            thrown.expect(RejectedExecutionException.class);
+            adaptive.submit(() -> null);
+        } finally {
+            gate.countDown();
+        }
+    }
+
+    @Test
+    public void shouldReleaseAdaptivePermitOnCompletion()
+            throws ExecutionException, InterruptedException {
+        final AdaptiveExecutorService adaptive = adaptive(threads,
+                new ConcurrencyLimit(1, 1, 1));
+        adaptive.submit(() -> 3).get();
+
+        assertThat(adaptive.submit(() -> 4).get(), is(equalTo(4)));
+    }
+
+    @Test
+    public void shouldBackOffAdaptiveLimitOnTimeout()
+            throws InterruptedException {
+        final AdaptiveExecutorService adaptive = adaptive(threads,
+                new ConcurrencyLimit(10, 1, 10));
+        try {
+            adaptive.submit(() -> {
+                throw new TimeoutException();
+            }).get();
+        } catch (final ExecutionException ignored) {
+        }
+
+        assertThat(adaptive.limit().limit(), is(equalTo(9)));
+    }
+
+    @Test
+    public void shouldScheduleCompletably()
+            throws InterruptedException, ExecutionException {
+        try (final CompletableScheduledExecutorService scheduled = scheduled(
+                newSingleThreadExecutor())) {
+            assertThat(scheduled.schedule(() -> 3, 10, MILLISECONDS).get(),
+                    is(equalTo(3)));
+        }
+    }
+
+    @Test
+    public void shouldRepeatUntilCancelled()
+            throws InterruptedException {
+        final CountDownLatch repeated = new CountDownLatch(3);
+        try (final CompletableScheduledExecutorService scheduled = scheduled(
+                newSingleThreadExecutor())) {
+            final CompletableScheduledFuture<?> future = scheduled
+                    .scheduleAtFixedRate(repeated::countDown, 0, 5,
+                            MILLISECONDS);
+
+            assertThat(repeated.await(1, SECONDS), is(true));
+            future.cancel(true);
+            assertThat(future.isCancelled(), is(true));
+        }
+    }
+
+    @Test
+    public void shouldCancelScheduledOnShutdown() {
+        final CompletableScheduledFuture<Integer> future;
+        try (final CompletableScheduledExecutorService scheduled = scheduled(
+                newSingleThreadExecutor())) {
+            future = scheduled.schedule(() -> 3, 1, SECONDS);
+        }
+
+        assertThat(future.isCancelled(), is(true));
+    }
+
     private static void pause()
             throws InterruptedException {
         MILLISECONDS.sleep(100);
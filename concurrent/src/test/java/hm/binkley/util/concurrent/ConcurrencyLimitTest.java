@@ -0,0 +1,95 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@code ConcurrencyLimitTest} tests {@link ConcurrencyLimit}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class ConcurrencyLimitTest {
+    @Test
+    public void shouldGrowWhileLatencySteady() {
+        final ConcurrencyLimit limit = new ConcurrencyLimit(10, 1, 100);
+        for (int i = 0; i < 10; ++i)
+            limit.sample(1_000_000L, limit.limit());
+
+        assertThat(limit.limit(), is(greaterThan(10)));
+    }
+
+    @Test
+    public void shouldShrinkAsLatencyRises() {
+        final ConcurrencyLimit limit = new ConcurrencyLimit(50, 1, 100);
+        for (int i = 0; i < 100; ++i)
+            limit.sample(1_000_000L, limit.limit());
+        final int steady = limit.limit();
+        for (int i = 0; i < 10; ++i)
+            limit.sample(10_000_000L, limit.limit());
+
+        assertThat(limit.limit(), is(lessThan(steady)));
+    }
+
+    @Test
+    public void shouldNotGrowWhenUnderused() {
+        final ConcurrencyLimit limit = new ConcurrencyLimit(10, 1, 100);
+        for (int i = 0; i < 10; ++i)
+            limit.sample(1_000_000L, 1);
+
+        assertThat(limit.limit(), is(equalTo(10)));
+    }
+
+    @Test
+    public void shouldBackOffOnDrop() {
+        final ConcurrencyLimit limit = new ConcurrencyLimit(10, 1, 100);
+        limit.dropped();
+
+        assertThat(limit.limit(), is(equalTo(9)));
+    }
+
+    @Test
+    public void shouldStayWithinBounds() {
+        final ConcurrencyLimit limit = new ConcurrencyLimit(2, 2, 3);
+        for (int i = 0; i < 10; ++i)
+            limit.dropped();
+
+        assertThat(limit.limit(), is(equalTo(2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInitialOutOfBounds() {
+        new ConcurrencyLimit(0, 1, 10);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@code LatencyHistogramTest} tests {@link LatencyHistogram}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class LatencyHistogramTest {
+    @Test
+    public void shouldBeExactForSmallValues() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 10; ++nanos)
+            histogram.record(nanos);
+
+        assertThat(histogram.valueAtPercentile(50), is(equalTo(5L)));
+    }
+
+    @Test
+    public void shouldBeCloseForLargeValues() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100_000; ++nanos)
+            histogram.record(nanos);
+        final long p99 = histogram.valueAtPercentile(99);
+
+        assertThat(p99, is(greaterThanOrEqualTo(99_000L)));
+        assertThat(p99, is(lessThanOrEqualTo(99_000L * 104 / 100)));
+    }
+
+    @Test
+    public void shouldNotExceedMax() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_001L);
+
+        assertThat(histogram.valueAtPercentile(100), is(equalTo(1_000_001L)));
+    }
+
+    @Test
+    public void shouldCoverAllValues() {
+        assertThat(LatencyHistogram.highestEquivalent(
+                        LatencyHistogram.index(Long.MAX_VALUE)),
+                is(equalTo(Long.MAX_VALUE)));
+    }
+}
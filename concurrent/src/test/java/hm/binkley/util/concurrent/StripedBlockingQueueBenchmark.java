@@ -0,0 +1,127 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import hm.binkley.util.concurrent.CompletableExecutors.CompletableExecutorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static hm.binkley.util.concurrent.CompletableExecutors.completable;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+
+/**
+ * {@code StripedBlockingQueueBenchmark} measures submit throughput to a
+ * fixed thread pool queueing in a {@link StripedBlockingQueue} against a
+ * {@link LinkedBlockingQueue}, as with {@link
+ * CompletableExecutors#striped(int)} and {@code
+ * completable(Executors.newFixedThreadPool(n))}.  The main method runs
+ * with 1, 8, 32 and 64 submitting threads.
+ * <p>
+ * Both queues are unbounded, so short iterations keep the backlog small;
+ * each iteration ends by waiting for the pool to drain.
+ * <p>
+ * Run with {@code mvn -P jmh clean test-compile exec:java
+ * -Dexec.classpathScope=test
+ * -Dexec.mainClass=hm.binkley.util.concurrent.StripedBlockingQueueBenchmark}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+@BenchmarkMode(Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = MILLISECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StripedBlockingQueueBenchmark {
+    private static final Runnable TASK = () -> {};
+
+    @Param({"linked", "striped"})
+    public String queue;
+
+    private ThreadPoolExecutor pool;
+    private CompletableExecutorService threads;
+
+    public static void main(final String... args)
+            throws RunnerException {
+        for (final int producers : new int[]{1, 8, 32, 64})
+            new Runner(new OptionsBuilder().
+                    include(StripedBlockingQueueBenchmark.class
+                            .getSimpleName()).
+                    threads(producers).
+                    build()).
+                    run();
+    }
+
+    @Setup
+    public void setUp() {
+        final int nThreads = Runtime.getRuntime().availableProcessors();
+        final BlockingQueue<Runnable> tasks = "striped".equals(queue)
+                ? new StripedBlockingQueue<>()
+                : new LinkedBlockingQueue<>();
+        pool = new ThreadPoolExecutor(nThreads, nThreads, 0L, MILLISECONDS,
+                tasks);
+        pool.prestartAllCoreThreads();
+        threads = completable(pool);
+    }
+
+    @TearDown(Level.Iteration)
+    public void drain() {
+        while (!pool.getQueue().isEmpty())
+            Thread.yield();
+    }
+
+    @TearDown
+    public void tearDown() {
+        threads.shutdownNow();
+    }
+
+    @Benchmark
+    public CompletableFuture<?> submit() {
+        return threads.submit(TASK);
+    }
+}
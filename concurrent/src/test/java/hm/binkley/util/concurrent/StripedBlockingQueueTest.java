@@ -0,0 +1,130 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@code StripedBlockingQueueTest} tests {@link StripedBlockingQueue}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class StripedBlockingQueueTest {
+    @Test
+    public void shouldRoundStripesToPowerOfTwo() {
+        assertThat(new StripedBlockingQueue<>(5).stripes(), is(equalTo(8)));
+    }
+
+    @Test
+    public void shouldKeepOrderForOneProducer() {
+        final StripedBlockingQueue<String> queue
+                = new StripedBlockingQueue<>(4);
+        queue.offer("a");
+        queue.offer("b");
+        queue.offer("c");
+        final List<String> drained = new ArrayList<>();
+        queue.drainTo(drained);
+
+        assertThat(drained, is(equalTo(asList("a", "b", "c"))));
+    }
+
+    @Test
+    public void shouldStealFromOtherStripes()
+            throws ExecutionException, InterruptedException {
+        final StripedBlockingQueue<String> queue
+                = new StripedBlockingQueue<>(4);
+        CompletableFuture.runAsync(() -> queue.offer("a")).get();
+
+        assertThat(queue.poll(), is(equalTo("a")));
+    }
+
+    @Test
+    public void shouldWakeWaitingConsumer()
+            throws ExecutionException, InterruptedException,
+            TimeoutException {
+        final StripedBlockingQueue<String> queue
+                = new StripedBlockingQueue<>(4);
+        final CompletableFuture<String> taken = CompletableFuture
+                .supplyAsync(() -> {
+                    try {
+                        return queue.take();
+                    } catch (final InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+        Thread.sleep(10);
+        queue.offer("a");
+
+        assertThat(taken.get(1, SECONDS), is(equalTo("a")));
+    }
+
+    @Test
+    public void shouldTimeOutWhenEmpty()
+            throws InterruptedException {
+        assertThat(new StripedBlockingQueue<String>(4).poll(1, MILLISECONDS),
+                is(nullValue()));
+    }
+
+    @Test
+    public void shouldRemoveFromAnyStripe() {
+        final StripedBlockingQueue<String> queue
+                = new StripedBlockingQueue<>(4);
+        queue.offer("a");
+        queue.remove("a");
+
+        assertThat(queue.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldRemoveThroughIteratorAfterHasNext() {
+        final StripedBlockingQueue<String> queue
+                = new StripedBlockingQueue<>(64);
+        queue.offer("a");
+        final Iterator<String> it = queue.iterator();
+        it.next();
+        it.hasNext();
+        it.remove();
+
+        assertThat(queue.isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.concurrent;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@code TimingWheelTest} tests {@link TimingWheel}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class TimingWheelTest {
+    private TimingWheel<Runnable> wheel;
+
+    @Before
+    public void setUp() {
+        // Small wheels cascade through several levels quickly
+        wheel = new TimingWheel<>(1, MILLISECONDS, 4, Thread::new);
+        wheel.start();
+    }
+
+    @After
+    public void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    public void shouldFireNoEarlierThanDelay()
+            throws InterruptedException {
+        final CountDownLatch fired = new CountDownLatch(1);
+        final long start = System.nanoTime();
+        wheel.schedule(fired::countDown, MILLISECONDS.toNanos(50));
+        fired.await(1, SECONDS);
+
+        assertThat(System.nanoTime() - start,
+                is(greaterThanOrEqualTo(MILLISECONDS.toNanos(50))));
+    }
+
+    @Test
+    public void shouldFireAcrossLevels()
+            throws InterruptedException {
+        final CountDownLatch fired = new CountDownLatch(100);
+        for (int i = 0; i < 100; ++i)
+            wheel.schedule(fired::countDown, MILLISECONDS.toNanos(i * 3));
+
+        assertThat(fired.await(1, SECONDS), is(true));
+    }
+
+    @Test
+    public void shouldNotFireWhenCancelled()
+            throws InterruptedException {
+        final CountDownLatch fired = new CountDownLatch(1);
+        wheel.schedule(fired::countDown, MILLISECONDS.toNanos(20)).cancel();
+
+        assertThat(fired.await(100, MILLISECONDS), is(false));
+    }
+
+    @Test
+    public void shouldReturnUnfiredOnStop() {
+        final Runnable task = () -> {};
+        wheel.schedule(task, SECONDS.toNanos(10));
+
+        assertThat(wheel.stop().size(), is(equalTo(1)));
+    }
+}
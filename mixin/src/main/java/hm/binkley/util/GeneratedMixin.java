@@ -0,0 +1,627 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.reflect.Modifier.isPublic;
+
+/**
+ * {@code GeneratedMixin} implements {@link Mixin#newGeneratedMixin(Class,
+ * Object...)}.  For each <em>shape</em>, a mixin interface and the classes
+ * of its delegates, it generates a concrete class whose methods call the
+ * chosen delegate directly with {@code invokevirtual} or {@code
+ * invokeinterface}.  Unlike a proxy, calls neither box arguments nor
+ * allocate, and the JIT inlines them as with hand-written delegation.
+ * <p>
+ * Delegates are chosen as by {@link MixinHandler}: first a delegate
+ * implementing the declaring type, then a "duck" match by name and
+ * parameter types.
+ * Methods without match keep their interface default, or throw {@code
+ * AbstractMethodError} when called.  Generated classes are defined beside
+ * the mixin interface, so package-private interfaces and delegates work;
+ * for JDK interfaces they are defined in a fresh class loader.
+ * <p>
+ * Shapes a generated class cannot reach, such as delegate methods only
+ * declared in inaccessible classes, fall back to {@link
+ * Mixin#newMixin(Class, Object...) proxies}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+final class GeneratedMixin {
+    private static final AtomicLong uniq = new AtomicLong();
+    /**
+     * The generated class by shape, kept while loaded.  Classes defined
+     * beside the mixin interface stay loaded with it; those defined in a
+     * fresh class loader unload with their last mixin.
+     */
+    private static final ShapeCache<Class<?>> shapes = new ShapeCache<>();
+    private static final ClassValue<Constructor<?>> constructors
+            = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(final Class<?> generated) {
+            try {
+                return generated.getConstructor(Object[].class);
+            } catch (final NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    private GeneratedMixin() {
+    }
+
+    @Nonnull
+    static <T> T newMixin(@Nonnull final Class<T> as,
+            final Object... delegates) {
+        final List<Object> mixed = new MixedDelegates(delegates)
+                .mixinDelegates();
+        final List<Class<?>> shape = new ArrayList<>(mixed.size());
+        for (final Object delegate : mixed)
+            shape.add(delegate.getClass());
+        final Class<?> generated = shapes.get(as, shape,
+                GeneratedMixin::generate);
+        if (null == generated)
+            return Mixin.newMixin(as, delegates);
+        try {
+            return as.cast(constructors.get(generated).newInstance(
+                    (Object) mixed.toArray()));
+        } catch (final InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (final InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /** @return the generated class, or {@code null} to use a proxy */
+    private static Class<?> generate(final Class<?> as,
+            final List<Class<?>> shape) {
+        final Target target = Target.of(as, shape);
+        if (!target.accessible(as))
+            return null;
+        final List<Dispatch> dispatches = new ArrayList<>();
+        final Set<String> seen = new HashSet<>();
+        for (final Method method : MixinHandler.methods(as)) {
+            if (!seen.add(method.getName() + descriptor(method)))
+                continue;
+            final Dispatch dispatch = dispatch(target, method, shape);
+            if (Dispatch.UNREACHABLE == dispatch)
+                return null;
+            if (null != dispatch)
+                dispatches.add(dispatch);
+        }
+        final String name = (target.packageName.isEmpty() ? ""
+                : target.packageName + '.') + as.getSimpleName() + "$Mixin$"
+                + uniq.getAndIncrement();
+        try {
+            final byte[] bytes = new ClassFile(name, as, shape.size(),
+                    dispatches).toBytes();
+            final Class<?> generated = target.define(name, bytes);
+            // Fail now rather than at first use
+            constructors.get(generated);
+            return generated;
+        } catch (final IOException | ReflectiveOperationException
+                | LinkageError | SecurityException
+                | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds the delegate matching <var>method</var> as {@link
+     * MixinHandler#match(Method, List) proxies do}, and an accessible type
+     * through which to call it.
+     *
+     * @return the dispatch, {@code null} if no delegate matches, or {@link
+     * Dispatch#UNREACHABLE} if the matching delegate is inaccessible
+     */
+    private static Dispatch dispatch(final Target target,
+            final Method method, final List<Class<?>> shape) {
+        final MixinHandler.Match match = MixinHandler.match(method, shape);
+        return null == match ? null
+                : owner(target, method, shape.get(match.index), match.index);
+    }
+
+    /**
+     * Searches <var>delegate</var> and its supertypes, nearest first, for
+     * an accessible type declaring <var>method</var>.
+     */
+    private static Dispatch owner(final Target target, final Method method,
+            final Class<?> delegate, final int index) {
+        final Set<Class<?>> seen = new HashSet<>();
+        final Deque<Class<?>> types = new ArrayDeque<>();
+        types.add(delegate);
+        while (!types.isEmpty()) {
+            final Class<?> type = types.remove();
+            if (!seen.add(type))
+                continue;
+            if (target.accessible(type)) {
+                final Method found = MixinHandler.publicMethod(type, method);
+                if (null != found && method.getReturnType()
+                        .isAssignableFrom(found.getReturnType()))
+                    return new Dispatch(method, index, type, found);
+            }
+            if (null != type.getSuperclass())
+                types.add(type.getSuperclass());
+            for (final Class<?> itf : type.getInterfaces())
+                types.add(itf);
+        }
+        return Dispatch.UNREACHABLE;
+    }
+
+    private static String descriptor(final Method method) {
+        return descriptor(method.getParameterTypes(), method.getReturnType());
+    }
+
+    private static String descriptor(final Class<?>[] parameterTypes,
+            final Class<?> returnType) {
+        final StringBuilder descriptor = new StringBuilder("(");
+        for (final Class<?> type : parameterTypes)
+            descriptor.append(descriptor(type));
+        return descriptor.append(')').append(descriptor(returnType))
+                .toString();
+    }
+
+    private static String descriptor(final Class<?> type) {
+        if (type.isArray())
+            return internalName(type);
+        if (!type.isPrimitive())
+            return 'L' + internalName(type) + ';';
+        if (int.class == type)
+            return "I";
+        if (long.class == type)
+            return "J";
+        if (boolean.class == type)
+            return "Z";
+        if (byte.class == type)
+            return "B";
+        if (char.class == type)
+            return "C";
+        if (short.class == type)
+            return "S";
+        if (float.class == type)
+            return "F";
+        if (double.class == type)
+            return "D";
+        return "V";
+    }
+
+    private static String internalName(final Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String internalName(final String name) {
+        return name.replace('.', '/');
+    }
+
+    private static int slots(final Class<?> type) {
+        return long.class == type || double.class == type ? 2
+                : void.class == type ? 0 : 1;
+    }
+
+    /** Where to define a generated class, and what it may reach there. */
+    private static final class Target {
+        private final ClassLoader loader;
+        private final String packageName;
+        /** Class to define beside, or {@code null} for a fresh loader. */
+        private final Class<?> neighbor;
+
+        private Target(final ClassLoader loader, final String packageName,
+                final Class<?> neighbor) {
+            this.loader = loader;
+            this.packageName = packageName;
+            this.neighbor = neighbor;
+        }
+
+        /**
+         * Beside <var>as</var> if possible, else in a child of a delegate
+         * class loader.
+         */
+        private static Target of(final Class<?> as,
+                final List<Class<?>> shape) {
+            if (null != as.getClassLoader())
+                return new Target(as.getClassLoader(), packageName(as), as);
+            ClassLoader parent = GeneratedMixin.class.getClassLoader();
+            for (final Class<?> delegate : shape)
+                if (null != delegate.getClassLoader()) {
+                    parent = delegate.getClassLoader();
+                    break;
+                }
+            return new Target(new Loader(parent),
+                    GeneratedMixin.class.getPackage().getName()
+                            + ".generated", null);
+        }
+
+        private boolean accessible(final Class<?> type) {
+            if (!isPublic(type.getModifiers())
+                    && !(loader == type.getClassLoader() && packageName
+                    .equals(packageName(type))))
+                return false;
+            // Lambdas, hidden classes and classes the loader cannot see
+            try {
+                return type == Class
+                        .forName(type.getName(), false, loader);
+            } catch (final ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        }
+
+        private Class<?> define(final String name, final byte[] bytes)
+                throws ReflectiveOperationException {
+            return null == neighbor ? ((Loader) loader).define(name, bytes)
+                    : defineBeside(neighbor, name, bytes);
+        }
+
+        private static String packageName(final Class<?> type) {
+            final String name = type.getName();
+            final int dot = name.lastIndexOf('.');
+            return -1 == dot ? "" : name.substring(0, dot);
+        }
+    }
+
+    /**
+     * Defines a class in the package and loader of <var>neighbor</var>:
+     * with {@code Lookup.defineClass} if present (JDK 9 or later), else
+     * with {@code ClassLoader.defineClass}.
+     */
+    private static Class<?> defineBeside(final Class<?> neighbor,
+            final String name, final byte[] bytes)
+            throws ReflectiveOperationException {
+        try {
+            final Lookup lookup = (Lookup) MethodHandles.class
+                    .getMethod("privateLookupIn", Class.class, Lookup.class)
+                    .invoke(null, neighbor, MethodHandles.lookup());
+            return (Class<?>) Lookup.class
+                    .getMethod("defineClass", byte[].class)
+                    .invoke(lookup, (Object) bytes);
+        } catch (final NoSuchMethodException e) {
+            final Method defineClass = ClassLoader.class
+                    .getDeclaredMethod("defineClass", String.class,
+                            byte[].class, int.class, int.class);
+            defineClass.setAccessible(true);
+            return (Class<?>) defineClass
+                    .invoke(neighbor.getClassLoader(), name, bytes, 0,
+                            bytes.length);
+        }
+    }
+
+    private static final class Loader
+            extends ClassLoader {
+        private Loader(final ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> define(final String name, final byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    /** A mixin method calling delegate <var>index</var> through owner. */
+    private static final class Dispatch {
+        private static final Dispatch UNREACHABLE = new Dispatch(null, -1,
+                null, null);
+
+        private final Method method;
+        private final int index;
+        private final Class<?> owner;
+        private final Method target;
+
+        private Dispatch(final Method method, final int index,
+                final Class<?> owner, final Method target) {
+            this.method = method;
+            this.index = index;
+            this.owner = owner;
+            this.target = target;
+        }
+    }
+
+    /**
+     * Writes a final class implementing the mixin interface, holding the
+     * delegates in fields {@code d0}, {@code d1}, ... set from an {@code
+     * Object[]} constructor argument.  Code is straight-line, so needs no
+     * stack map frames.
+     */
+    private static final class ClassFile {
+        private static final int MAJOR_VERSION = 52; // JDK 8
+        private static final int ACC_PUBLIC = 0x0001;
+        private static final int ACC_PRIVATE = 0x0002;
+        private static final int ACC_FINAL = 0x0010;
+        private static final int ACC_SUPER = 0x0020;
+        private static final String OBJECT = "java/lang/Object";
+        private static final String DELEGATE = "Ljava/lang/Object;";
+
+        private final ConstantPool pool = new ConstantPool();
+        private final String name;
+        private final Class<?> as;
+        private final int delegates;
+        private final List<Dispatch> dispatches;
+
+        private ClassFile(final String name, final Class<?> as,
+                final int delegates, final List<Dispatch> dispatches) {
+            this.name = internalName(name);
+            this.as = as;
+            this.delegates = delegates;
+            this.dispatches = dispatches;
+        }
+
+        private byte[] toBytes()
+                throws IOException {
+            // Members first, to fill the constant pool
+            final ByteArrayOutputStream members = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(members);
+            final int thisClass = pool.classRef(name);
+            final int superClass = pool.classRef(OBJECT);
+            final int itf = pool.classRef(internalName(as));
+
+            out.writeShort(delegates);
+            for (int i = 0; i < delegates; ++i) {
+                out.writeShort(ACC_PRIVATE | ACC_FINAL);
+                out.writeShort(pool.utf8("d" + i));
+                out.writeShort(pool.utf8(DELEGATE));
+                out.writeShort(0);
+            }
+
+            out.writeShort(1 + dispatches.size());
+            writeConstructor(out);
+            for (final Dispatch dispatch : dispatches)
+                writeDispatch(out, dispatch);
+            out.writeShort(0); // Class attributes
+
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream file = new DataOutputStream(bytes);
+            file.writeInt(0xCAFEBABE);
+            file.writeShort(0);
+            file.writeShort(MAJOR_VERSION);
+            pool.writeTo(file);
+            file.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            file.writeShort(thisClass);
+            file.writeShort(superClass);
+            file.writeShort(1);
+            file.writeShort(itf);
+            members.writeTo(file);
+            return bytes.toByteArray();
+        }
+
+        private void writeConstructor(final DataOutputStream out)
+                throws IOException {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream code = new DataOutputStream(bytes);
+            code.writeByte(0x2a); // aload_0
+            code.writeByte(0xb7); // invokespecial
+            code.writeShort(pool.methodRef(OBJECT, "<init>", "()V", false));
+            for (int i = 0; i < delegates; ++i) {
+                code.writeByte(0x2a); // aload_0
+                code.writeByte(0x2b); // aload_1
+                code.writeByte(0x11); // sipush
+                code.writeShort(i);
+                code.writeByte(0x32); // aaload
+                code.writeByte(0xb5); // putfield
+                code.writeShort(pool.fieldRef(name, "d" + i, DELEGATE));
+            }
+            code.writeByte(0xb1); // return
+            writeMethod(out, "<init>", "([Ljava/lang/Object;)V", 3, 2,
+                    bytes);
+        }
+
+        private void writeDispatch(final DataOutputStream out,
+                final Dispatch dispatch)
+                throws IOException {
+            final Class<?>[] parameterTypes = dispatch.method
+                    .getParameterTypes();
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream code = new DataOutputStream(bytes);
+            code.writeByte(0x2a); // aload_0
+            code.writeByte(0xb4); // getfield
+            code.writeShort(pool.fieldRef(name, "d" + dispatch.index,
+                    DELEGATE));
+            final String owner = internalName(dispatch.owner);
+            if (Object.class != dispatch.owner) {
+                code.writeByte(0xc0); // checkcast
+                code.writeShort(pool.classRef(owner));
+            }
+            int slot = 1;
+            for (final Class<?> type : parameterTypes) {
+                code.writeByte(load(type));
+                code.writeByte(slot);
+                slot += slots(type);
+            }
+            final boolean itf = dispatch.owner.isInterface();
+            final int ref = pool.methodRef(owner, dispatch.target.getName(),
+                    descriptor(dispatch.target), itf);
+            if (itf) {
+                code.writeByte(0xb9); // invokeinterface
+                code.writeShort(ref);
+                code.writeByte(slot);
+                code.writeByte(0);
+            } else {
+                code.writeByte(0xb6); // invokevirtual
+                code.writeShort(ref);
+            }
+            code.writeByte(xreturn(dispatch.method.getReturnType()));
+            writeMethod(out, dispatch.method.getName(),
+                    descriptor(dispatch.method), Math.max(slot,
+                            slots(dispatch.method.getReturnType())), slot,
+                    bytes);
+        }
+
+        private void writeMethod(final DataOutputStream out,
+                final String name, final String descriptor,
+                final int maxStack, final int maxLocals,
+                final ByteArrayOutputStream code)
+                throws IOException {
+            out.writeShort(ACC_PUBLIC);
+            out.writeShort(pool.utf8(name));
+            out.writeShort(pool.utf8(descriptor));
+            out.writeShort(1); // Code attribute only
+            out.writeShort(pool.utf8("Code"));
+            out.writeInt(12 + code.size());
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.size());
+            code.writeTo(out);
+            out.writeShort(0); // Exception table
+            out.writeShort(0); // Code attributes
+        }
+
+        private static int load(final Class<?> type) {
+            if (!type.isPrimitive())
+                return 0x19; // aload
+            if (long.class == type)
+                return 0x16; // lload
+            if (float.class == type)
+                return 0x17; // fload
+            if (double.class == type)
+                return 0x18; // dload
+            return 0x15; // iload
+        }
+
+        private static int xreturn(final Class<?> type) {
+            if (void.class == type)
+                return 0xb1; // return
+            if (!type.isPrimitive())
+                return 0xb0; // areturn
+            if (long.class == type)
+                return 0xad; // lreturn
+            if (float.class == type)
+                return 0xae; // freturn
+            if (double.class == type)
+                return 0xaf; // dreturn
+            return 0xac; // ireturn
+        }
+    }
+
+    private static final class ConstantPool {
+        private static final int CONSTANT_UTF8 = 1;
+        private static final int CONSTANT_CLASS = 7;
+        private static final int CONSTANT_FIELD = 9;
+        private static final int CONSTANT_METHOD = 10;
+        private static final int CONSTANT_INTERFACEMETHOD = 11;
+        private static final int CONSTANT_NAMEANDTYPE = 12;
+
+        private final ByteArrayOutputStream bytes
+                = new ByteArrayOutputStream();
+        private final DataOutputStream entries = new DataOutputStream(bytes);
+        private final Map<String, Integer> indices = new HashMap<>();
+
+        private int utf8(final String value)
+                throws IOException {
+            final Integer index = indices.get("U" + value);
+            if (null != index)
+                return index;
+            entries.writeByte(CONSTANT_UTF8);
+            entries.writeUTF(value);
+            return add("U" + value);
+        }
+
+        private int classRef(final String internalName)
+                throws IOException {
+            final String key = "C" + internalName;
+            final Integer index = indices.get(key);
+            if (null != index)
+                return index;
+            final int name = utf8(internalName);
+            entries.writeByte(CONSTANT_CLASS);
+            entries.writeShort(name);
+            return add(key);
+        }
+
+        private int fieldRef(final String owner, final String name,
+                final String descriptor)
+                throws IOException {
+            return memberRef(CONSTANT_FIELD, owner, name, descriptor);
+        }
+
+        private int methodRef(final String owner, final String name,
+                final String descriptor, final boolean itf)
+                throws IOException {
+            return memberRef(itf ? CONSTANT_INTERFACEMETHOD : CONSTANT_METHOD,
+                    owner, name, descriptor);
+        }
+
+        private int memberRef(final int tag, final String owner,
+                final String name, final String descriptor)
+                throws IOException {
+            final String key = tag + owner + '.' + name + descriptor;
+            final Integer index = indices.get(key);
+            if (null != index)
+                return index;
+            final int ownerRef = classRef(owner);
+            final int nameAndType = nameAndType(name, descriptor);
+            entries.writeByte(tag);
+            entries.writeShort(ownerRef);
+            entries.writeShort(nameAndType);
+            return add(key);
+        }
+
+        private int nameAndType(final String name, final String descriptor)
+                throws IOException {
+            final String key = "N" + name + descriptor;
+            final Integer index = indices.get(key);
+            if (null != index)
+                return index;
+            final int nameRef = utf8(name);
+            final int descriptorRef = utf8(descriptor);
+            entries.writeByte(CONSTANT_NAMEANDTYPE);
+            entries.writeShort(nameRef);
+            entries.writeShort(descriptorRef);
+            return add(key);
+        }
+
+        private int add(final String key) {
+            final int index = indices.size() + 1;
+            if (0xFFFF <= index)
+                throw new IllegalArgumentException(
+                        "Constant pool size limit exceeded");
+            indices.put(key, index);
+            return index;
+        }
+
+        private void writeTo(final DataOutputStream out)
+                throws IOException {
+            out.writeShort(indices.size() + 1);
+            bytes.writeTo(out);
+        }
+    }
+}
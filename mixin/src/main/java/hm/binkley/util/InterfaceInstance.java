@@ -10,6 +10,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
@@ -19,30 +23,57 @@ import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
+import static java.lang.reflect.Modifier.isPublic;
 import static java.lang.reflect.Modifier.isStatic;
 import static java.security.AccessController.doPrivileged;
 
 /**
- * {@code InterfaceInstance} <b>needs documentation</b>.
+ * {@code InterfaceInstance} creates instances of public interfaces which
+ * implement no methods of their own, for invoking default methods
+ * reflectively.  Each interface gets one implementing class, cached weakly
+ * against the interface.
  *
  * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
- * @todo Needs documentation.
  * @see <a href="https://github.com/thekid/xp-experiments/tree/master/java8/intf-inst">How do I
  * invoke Java 8 default methods reflectively?</a>
  */
 public final class InterfaceInstance {
     private static final AtomicLong uniq = new AtomicLong();
+    /** One class per interface, unloadable with the interface. */
+    private static final ClassValue<Class<?>> classes = new ClassValue<Class<?>>() {
+        @Override
+        protected Class<?> computeValue(final Class<?> itfClass) {
+            try {
+                return new InterfaceInstance(itfClass).defineClass();
+            } catch (final ClassNotFoundException e) {
+                throw new TypeNotPresentException(e.getMessage(), e);
+            }
+        }
+    };
     private final Loader loader;
     private final Class<?> base;
 
+    /**
+     * Creates an instance of <var>itfClass</var>, implementing no methods
+     * beyond the interface defaults.  The implementing class is defined on
+     * first use and cached per interface, so later instances cost one
+     * constructor call.
+     */
     public static <T> T newInstance(final Class<T> itfClass)
             throws ClassNotFoundException, IllegalAccessException, InstantiationException {
-        return itfClass.cast(new InterfaceInstance(itfClass).defineClass().newInstance());
+        final Class<?> instanceClass;
+        try {
+            instanceClass = classes.get(itfClass);
+        } catch (final TypeNotPresentException e) {
+            throw (ClassNotFoundException) e.getCause();
+        }
+        return itfClass.cast(instanceClass.newInstance());
     }
 
     public InterfaceInstance(final Class<?> base)
             throws IllegalArgumentException {
-        loader = doPrivileged((PrivilegedAction<Loader>) Loader::new);
+        loader = doPrivileged((PrivilegedAction<Loader>) () -> new Loader(
+                base.getClassLoader()));
         for (final Method m : base.getMethods())
             if (isStatic(m.getModifiers()) && !m.isDefault())
                 throw new IllegalArgumentException(
@@ -50,30 +81,86 @@ public final class InterfaceInstance {
         this.base = base;
     }
 
+    /**
+     * Defines a new class implementing the interface: a hidden class beside
+     * the interface with {@code Lookup.defineHiddenClass} if present (JDK 15
+     * or later) and permitted, else a named class in a fresh child of the
+     * interface class loader.  Either way the interface must be public.
+     */
     public Class<?> defineClass()
             throws ClassNotFoundException {
-        return loader.loadClass(base.getName() + "$Proxy$" + uniq.getAndIncrement());
+        if (!isPublic(base.getModifiers()))
+            throw new IllegalAccessError(
+                    "Cannot implement non-public " + base.getName());
+        final Class<?> hidden = defineHiddenClass();
+        if (null != hidden)
+            return hidden;
+        // Class loaders may not define classes in "java.*"
+        final String prefix = base.getName().startsWith("java.")
+                ? "hm.binkley.util.generated." : "";
+        return loader.loadClass(
+                prefix + base.getName() + "$Proxy$" + uniq.getAndIncrement());
+    }
+
+    private Class<?> defineHiddenClass() {
+        final Lookup lookup;
+        final Method defineHiddenClass;
+        final Object noOptions;
+        try {
+            final Class<?> classOption = Class
+                    .forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            noOptions = Array.newInstance(classOption, 0);
+            defineHiddenClass = Lookup.class
+                    .getMethod("defineHiddenClass", byte[].class, boolean.class,
+                            noOptions.getClass());
+            lookup = (Lookup) MethodHandles.class
+                    .getMethod("privateLookupIn", Class.class, Lookup.class)
+                    .invoke(null, base, MethodHandles.lookup());
+        } catch (final ClassNotFoundException | NoSuchMethodException e) {
+            return null; // JDK 14 or earlier
+        } catch (final IllegalAccessException | InvocationTargetException e) {
+            return null; // Interface in a module closed to us
+        }
+        try {
+            return ((Lookup) defineHiddenClass.invoke(lookup,
+                    loadClassData(base.getName() + "$Proxy"), true, noOptions))
+                    .lookupClass();
+        } catch (final IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (final InvocationTargetException e) {
+            final Throwable cause = e.getCause();
+            // Interface from another loader: lookup lacks full privilege
+            if (cause instanceof IllegalAccessException)
+                return null;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private byte[] loadClassData(final String name) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            final ClassWriter writer = new ClassWriter(
+                    new ClassInfo(name, "java.lang.Object", base.getName()));
+            writer.writeTo(bytes);
+            return bytes.toByteArray();
+        } catch (final Exception e) {
+            throw new RuntimeException("Cannot load " + name, e);
+        }
     }
 
     private class Loader
             extends ClassLoader {
+        private Loader(final ClassLoader parent) {
+            super(parent);
+        }
+
         @Override
         public Class findClass(final String name) {
             final byte[] definition = loadClassData(name);
             return defineClass(name, definition, 0, definition.length);
         }
-
-        private byte[] loadClassData(final String name) {
-            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
-            try {
-                final ClassWriter writer = new ClassWriter(
-                        new ClassInfo(name, "java.lang.Object", base.getName()));
-                writer.writeTo(bytes);
-                return bytes.toByteArray();
-            } catch (final Exception e) {
-                throw new RuntimeException("Cannot load " + name, e);
-            }
-        }
     }
 
     private static class ClassInfo {
@@ -25,6 +25,7 @@ import static java.lang.reflect.Proxy.newProxyInstance;
  *
  * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
  * @see #newMixin(Class, Object...) Create a new mixin
+ * @see #newGeneratedMixin(Class, Object...) Create a new mixin without proxy
  */
 public interface Mixin {
     /**
@@ -47,6 +48,31 @@ public interface Mixin {
                         new MixedDelegates(delegates).mixinDelegates())));
     }
 
+    /**
+     * Creates a new mixin as with {@link #newMixin(Class, Object...)}, but
+     * backed by a generated class calling delegates directly rather than a
+     * reflective proxy.  Calls do not box arguments or allocate, and inline
+     * as normal calls.  Generated classes are cached by <var>as</var> and
+     * the classes of <var>delegates</var>, so only the first mixin of each
+     * shape pays for generation.
+     * <p>
+     * Delegates are chosen per method as for proxies, once when generating.
+     * Shapes which cannot be generated, such as those needing a delegate
+     * method declared only in an inaccessible class, fall back to a proxy.
+     *
+     * @param as a superinterface of visible public methods implemented by
+     * <var>delegates</var>, never missing
+     * @param delegates the mixed-in delegates (implementations)
+     * @param <T> the mixin type (type of <var>as</var>)
+     *
+     * @return the mixed-in instance, never missing
+     */
+    @Nonnull
+    static <T> T newGeneratedMixin(@Nonnull final Class<T> as,
+            final Object... delegates) {
+        return GeneratedMixin.newMixin(as, delegates);
+    }
+
     /**
      * Gets an unmodifiable list of delegates implementing the mixin in the same
      * order as method lookup.
@@ -36,97 +36,216 @@ import java.lang.invoke.MethodHandles.Lookup;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Map;
 
 import static java.lang.String.format;
+import static java.lang.invoke.MethodType.genericMethodType;
+import static java.lang.reflect.Modifier.isStatic;
+import static java.util.Arrays.asList;
 
 /**
  * {@code MixinHandler} implements method lookup for {@link
  * Mixin#newMixin(Class, Object...)}.
+ * <p>
+ * Lookup is per <em>shape</em>, the mixin interface and the classes of its
+ * delegates.  The first mixin of a shape resolves all its methods at once
+ * into a dispatch table of unbound method handles, shared by later mixins
+ * of the same shape while any uses it; each handler holds only its
+ * delegates, passed to the handles as receivers.
+ * <p>
+ * Handles are adapted once, when resolved, to the uniform type {@code
+ * (Object, Object[])Object} of receiver and proxy arguments, so each call
+ * is a single {@code invokeExact} rather than the slow, generic path of
+ * {@code invokeWithArguments}.
  *
  * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
  */
 final class MixinHandler<T>
         implements InvocationHandler {
     private static final Lookup LOOKUP = MethodHandles.lookup();
-    private final ConcurrentMap<Method, MethodHandle> matches;
-    private final List<Object> delegates;
+    /** The dispatch table by shape, kept while handlers use it. */
+    private static final ShapeCache<Map<Method, Dispatch>> tables
+            = new ShapeCache<>();
+
+    private final Map<Method, Dispatch> table;
+    private final Object[] delegates;
 
     MixinHandler(final Class<T> as, final List<Object> delegates) {
-        this.delegates = delegates(as, delegates);
-        matches = new ConcurrentHashMap<>(as.getMethods().length);
+        final List<Class<?>> shape = new ArrayList<>(delegates.size());
+        for (final Object delegate : delegates)
+            shape.add(delegate.getClass());
+        table = tables.get(as, shape, MixinHandler::dispatchTable);
+        this.delegates = delegates(as, delegates).toArray();
     }
 
     @SneakyThrows({IllegalAccessException.class, ClassNotFoundException.class,
             InstantiationException.class})
     private List<Object> delegates(final Class<T> as,
             final List<Object> delegates) {
-        for (final Method method : as.getMethods())
-            if (method.isDefault()) {
-                final List<Object> delegatesPlus = new ArrayList<>(
-                        delegates.size() + 1);
-                delegatesPlus.addAll(delegates);
-                delegatesPlus.add(InterfaceInstance.newInstance(as));
-                return delegatesPlus;
-            }
-        return delegates;
+        if (!hasDefaultMethods(as))
+            return delegates;
+        final List<Object> delegatesPlus = new ArrayList<>(
+                delegates.size() + 1);
+        delegatesPlus.addAll(delegates);
+        delegatesPlus.add(InterfaceInstance.newInstance(as));
+        return delegatesPlus;
     }
 
     @Override
     public Object invoke(@Nonnull final Object proxy,
             @Nonnull final Method method, final Object[] args)
             throws Throwable {
-        // Try as previous found - method match memoized
-        final MethodHandle handle = matches.get(method);
-        if (null != handle)
-            return handle.invokeWithArguments(args);
-        final MethodHandle unreflected = LOOKUP.unreflect(method);
-        // Try as an implementation - static typing
-        for (final Object delegate : delegates)
-            try {
-                final MethodHandle bound = LOOKUP.
-                        findVirtual(delegate.getClass(), method.getName(),
-                                unreflected.type()).
-                        bindTo(delegate);
-                final Object value = bound.invokeWithArguments(args);
-                matches.put(method, bound);
-                return value;
-            } catch (final IllegalAccessException e) {
-                if (!method.getDeclaringClass().
-                        isAssignableFrom(delegate.getClass()))
-                    continue;
-                // Try reflection, less efficient but more general
-                method.setAccessible(true);
-                final MethodHandle bound = unreflected.bindTo(delegate);
-                final Object value = bound.invokeWithArguments(args);
-                matches.put(method, bound);
-                return value;
-            } catch (final NoSuchMethodException e) {
-                // Try next method
+        final Dispatch dispatch = table.get(method);
+        if (null == dispatch)
+            throw new AbstractMethodError(
+                    format("BUG: Missing implementation for <%s> among %s.",
+                            method, asList(delegates)));
+        // Proxies pass null rather than empty arguments, as spreaders of
+        // no arguments accept
+        return (Object) dispatch.handle
+                .invokeExact(delegates[dispatch.index], args);
+    }
+
+    /**
+     * Finds the delegate implementing <var>method</var>: first by static
+     * typing, a delegate implementing the declaring type; then by duck
+     * typing, a delegate with a public method of the same name and
+     * parameter types and a compatible return type.  Earlier delegates win.
+     *
+     * @param method the mixin method, never missing
+     * @param delegates the delegate classes in lookup order, never missing
+     *
+     * @return the match, or {@code null} if none
+     */
+    static Match match(@Nonnull final Method method,
+            @Nonnull final List<Class<?>> delegates) {
+        final Class<?> declaring = method.getDeclaringClass();
+        for (int i = 0; i < delegates.size(); ++i)
+            if (declaring.isAssignableFrom(delegates.get(i)))
+                return new Match(i, method);
+        for (int i = 0; i < delegates.size(); ++i) {
+            final Method quack = publicMethod(delegates.get(i), method);
+            if (null != quack && method.getReturnType()
+                    .isAssignableFrom(quack.getReturnType()))
+                return new Match(i, quack);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the methods a mixin of <var>as</var> dispatches: those of the
+     * interface, and the {@code equals}, {@code hashCode} and {@code
+     * toString} of {@code Object} as with proxies.
+     *
+     * @param as the mixin interface, never missing
+     *
+     * @return the instance methods, never missing
+     */
+    @Nonnull
+    static List<Method> methods(@Nonnull final Class<?> as) {
+        final List<Method> methods = new ArrayList<>();
+        for (final Method method : as.getMethods())
+            if (!isStatic(method.getModifiers()))
+                methods.add(method);
+        for (final Method method : Object.class.getMethods())
+            switch (method.getName()) {
+            case "equals":
+            case "hashCode":
+            case "toString":
+                methods.add(method);
             }
-        // Try by name/arg types - duck typing
+        return methods;
+    }
+
+    /**
+     * Scans rather than catching {@code NoSuchMethodException}.  Skips
+     * bridge methods, which have the same name and parameter types as the
+     * methods they bridge to but an erased return type.
+     */
+    static Method publicMethod(final Class<?> type, final Method method) {
         final String name = method.getName();
-        final Class<?>[] types = method.getParameterTypes();
-        for (final Object delegate : delegates) {
-            final Class<?> duck = delegate.getClass();
-            try {
-                final Method quack = duck.getMethod(name, types);
-                if (!method.getReturnType().
-                        isAssignableFrom(quack.getReturnType()))
-                    continue;
-                final MethodHandle bound = LOOKUP.unreflect(quack).
-                        bindTo(delegate);
-                final Object value = bound.invokeWithArguments(args);
-                matches.put(method, bound);
-                return value;
-            } catch (final NoSuchMethodException ignored) {
-                // Try next delegate
-            }
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        for (final Method candidate : type.getMethods())
+            if (name.equals(candidate.getName())
+                    && !isStatic(candidate.getModifiers())
+                    && !candidate.isBridge()
+                    && Arrays.equals(parameterTypes,
+                    candidate.getParameterTypes()))
+                return candidate;
+        return null;
+    }
+
+    private static boolean hasDefaultMethods(final Class<?> as) {
+        for (final Method method : as.getMethods())
+            if (method.isDefault())
+                return true;
+        return false;
+    }
+
+    /**
+     * Resolves every method of <var>as</var> against <var>shape</var>.
+     * Default methods without other match go to the interface instance
+     * appended after the delegates.
+     */
+    @SneakyThrows(IllegalAccessException.class)
+    private static Map<Method, Dispatch> dispatchTable(final Class<?> as,
+            final List<Class<?>> shape) {
+        final boolean defaults = hasDefaultMethods(as);
+        final Map<Method, Dispatch> table = new HashMap<>();
+        for (final Method method : methods(as)) {
+            final Match match = match(method, shape);
+            if (null != match)
+                table.put(method, new Dispatch(match.index,
+                        handle(method, match.target)));
+            else if (defaults && method.isDefault())
+                table.put(method, new Dispatch(shape.size(),
+                        handle(method, method)));
+        }
+        return table;
+    }
+
+    /**
+     * Unreflects <var>target</var> as a handle of type {@code (Object,
+     * Object[])Object}, taking the receiver and the arguments of
+     * <var>method</var> as from a proxy.  Falls back to reflective access
+     * for non-public types.
+     */
+    private static MethodHandle handle(final Method method,
+            final Method target)
+            throws IllegalAccessException {
+        MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflect(target);
+        } catch (final IllegalAccessException e) {
+            target.setAccessible(true);
+            handle = LOOKUP.unreflect(target);
+        }
+        final int n = method.getParameterCount();
+        return handle.asType(genericMethodType(1 + n)).
+                asSpreader(Object[].class, n);
+    }
+
+    /** The delegate and method implementing a mixin method. */
+    static final class Match {
+        final int index;
+        final Method target;
+
+        private Match(final int index, final Method target) {
+            this.index = index;
+            this.target = target;
+        }
+    }
+
+    private static final class Dispatch {
+        private final int index;
+        private final MethodHandle handle;
+
+        private Dispatch(final int index, final MethodHandle handle) {
+            this.index = index;
+            this.handle = handle;
         }
-        throw new AbstractMethodError(
-                format("BUG: Missing implementation for <%s> among %s.", method,
-                        delegates));
     }
 }
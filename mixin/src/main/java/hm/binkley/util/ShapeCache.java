@@ -0,0 +1,109 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * {@code ShapeCache} caches a value per <em>shape</em>, a mixin interface
+ * and the classes of its delegates, without keeping the classes or their
+ * class loaders reachable.  Rather than a map keyed by the shape, each class
+ * of the shape has a {@code ClassValue} holding the next level, so each
+ * level lives only as long as the class it is stored in.
+ * <p>
+ * Values are held weakly, as they may reach any class of the shape; users
+ * keep them strongly for as long as they use them.  Absent values, when
+ * there is nothing to compute, are cached until the classes unload.
+ *
+ * @param <V> the cached value type
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+final class ShapeCache<V> {
+    private static final Object ABSENT = new Object();
+
+    private final Node<V> root = new Node<>();
+
+    /**
+     * Gets the value for the shape of <var>as</var> and <var>delegates</var>,
+     * computing it with <var>compute</var> if missing or collected.
+     *
+     * @param as the mixin interface, never missing
+     * @param delegates the delegate classes in lookup order, never missing
+     * @param compute the value computation, never missing
+     *
+     * @return the cached value, or {@code null} if <var>compute</var> gave
+     * none
+     */
+    @Nullable
+    V get(@Nonnull final Class<?> as, @Nonnull final List<Class<?>> delegates,
+            @Nonnull final BiFunction<Class<?>, List<Class<?>>, V> compute) {
+        Node<V> node = root.next.get(as);
+        for (final Class<?> delegate : delegates)
+            node = node.next.get(delegate);
+        return node.get(as, delegates, compute);
+    }
+
+    private static final class Node<V> {
+        private final ClassValue<Node<V>> next = new ClassValue<Node<V>>() {
+            @Override
+            protected Node<V> computeValue(final Class<?> type) {
+                return new Node<>();
+            }
+        };
+        /** {@code WeakReference} of the value, or {@link #ABSENT}. */
+        private volatile Object value;
+
+        private V get(final Class<?> as, final List<Class<?>> delegates,
+                final BiFunction<Class<?>, List<Class<?>>, V> compute) {
+            final V cached = cached();
+            if (null != cached || ABSENT == value)
+                return cached;
+            synchronized (this) {
+                final V again = cached();
+                if (null != again || ABSENT == value)
+                    return again;
+                final V computed = compute.apply(as, delegates);
+                value = null == computed ? ABSENT
+                        : new WeakReference<>(computed);
+                return computed;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private V cached() {
+            final Object value = this.value;
+            return value instanceof WeakReference
+                    ? ((WeakReference<V>) value).get() : null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Please see https://github.com/binkley/binkley/blob/master/LICENSE.md.
+ */
+
+package hm.binkley.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static hm.binkley.util.Mixin.newGeneratedMixin;
+import static hm.binkley.util.Mixin.newMixin;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+/**
+ * {@code MixinBenchmark} measures the per-call cost of mixins, {@link
+ * Mixin#newMixin(Class, Object...) proxied} and {@link
+ * Mixin#newGeneratedMixin(Class, Object...) generated}, against a direct
+ * interface call.  The call takes and returns primitives, so boxing shows.
+ * <p>
+ * Run with {@code mvn -P jmh clean test-compile exec:java
+ * -Dexec.classpathScope=test
+ * -Dexec.mainClass=hm.binkley.util.MixinBenchmark}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MixinBenchmark {
+    private Adder direct;
+    private Adder proxied;
+    private Adder generated;
+    private int x;
+
+    public static void main(final String... args)
+            throws RunnerException {
+        new Runner(new OptionsBuilder().
+                include(MixinBenchmark.class.getSimpleName()).
+                build()).
+                run();
+    }
+
+    @Setup
+    public void setUp() {
+        direct = new Plus();
+        proxied = newMixin(Adder.class, new Plus());
+        generated = newGeneratedMixin(Adder.class, new Plus());
+        x = 3;
+    }
+
+    @Benchmark
+    public int direct() {
+        return direct.add(x, 1);
+    }
+
+    @Benchmark
+    public int proxied() {
+        return proxied.add(x, 1);
+    }
+
+    @Benchmark
+    public int generated() {
+        return generated.add(x, 1);
+    }
+
+    public interface Adder {
+        int add(final int a, final int b);
+    }
+
+    public static final class Plus
+            implements Adder {
+        @Override
+        public int add(final int a, final int b) {
+            return a + b;
+        }
+    }
+}
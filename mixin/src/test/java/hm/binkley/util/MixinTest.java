@@ -8,24 +8,35 @@ package hm.binkley.util;
 
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOError;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Inherited;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
+import java.lang.ref.WeakReference;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import static hm.binkley.util.Mixin.newGeneratedMixin;
 import static hm.binkley.util.Mixin.newMixin;
 import static hm.binkley.util.MixinTest.DefaultMethodValue.defaultValue;
 import static hm.binkley.util.MixinTest.Duck.QUACKERS;
 import static java.lang.annotation.ElementType.METHOD;
 import static java.lang.annotation.ElementType.TYPE;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.lang.reflect.Proxy.isProxyClass;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.equalToIgnoringCase;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -68,6 +79,16 @@ public class MixinTest {
                 is(equalTo(QUACKERS)));
     }
 
+    @Test
+    public void shouldDuckTypeSkippingBridgeMethods()
+            throws NoSuchMethodException {
+        assertThat(MixinHandler.publicMethod(Supplied.class,
+                Named.class.getMethod("get")).getReturnType(),
+                is(equalTo(String.class)));
+        assertThat(newMixin(Named.class, new Supplied()).get(),
+                is(equalTo(Supplied.VALUE)));
+    }
+
     @Test(expected = IOException.class)
     public void shouldPassThroughCheckedExceptionsFromDuckTyping()
             throws IOException {
@@ -148,6 +169,25 @@ public class MixinTest {
                 }).foo(), is(equalTo(6)));
     }
 
+    @Test
+    public void shouldReuseInterfaceInstanceClass()
+            throws ClassNotFoundException, IllegalAccessException,
+            InstantiationException {
+        assertThat(InterfaceInstance.newInstance(DefaultMethodPublic.class)
+                        .getClass(),
+                is(sameInstance(InterfaceInstance
+                        .newInstance(DefaultMethodPublic.class).getClass())));
+    }
+
+    @Test
+    public void shouldInstantiateInterfaceFromAnotherClassLoader()
+            throws ReflectiveOperationException {
+        final Class<?> copy = new Throwaway(DefaultMethodPublic.class)
+                .loadClass(DefaultMethodPublic.class.getName());
+
+        assertThat(InterfaceInstance.newInstance(copy), is(instanceOf(copy)));
+    }
+
     @Test(expected = IllegalAccessError.class)
     public void shouldThrowOnNonPublicForDefaultMethod() {
         newMixin(DefaultMethodNotPublic.class).foo();
@@ -168,6 +208,129 @@ public class MixinTest {
         assertThat(threads.submit(() -> 3).get(), is(equalTo(3)));
     }
 
+    @Test
+    public void shouldKeepDelegatesPerInstanceOfSameShape() {
+        final Testy first = newMixin(Testy.class, new Echo("first"));
+        final Testy second = newMixin(Testy.class, new Echo("second"));
+
+        assertThat(first.quack(1) + second.quack(1),
+                is(equalTo("firstsecond")));
+    }
+
+    @Test
+    public void shouldGenerateRatherThanProxy() {
+        assertThat(isProxyClass(
+                newGeneratedMixin(Testy.class, new Duck()).getClass()),
+                is(false));
+    }
+
+    @Test
+    public void shouldStaticTypeGenerated()
+            throws IOException {
+        final int roll = 13;
+        assertThat(newGeneratedMixin(Testy.class, (Bob) ignored -> roll)
+                .throwDown("Hoe down!"), is(equalTo(roll)));
+    }
+
+    @Test
+    public void shouldDuckTypeGenerated() {
+        assertThat(newGeneratedMixin(Testy.class, new Duck()).quack(3),
+                is(equalTo(QUACKERS)));
+    }
+
+    @Test
+    public void shouldDuckTypeSkippingBridgeMethodsGenerated() {
+        assertThat(newGeneratedMixin(Named.class, new Supplied()).get(),
+                is(equalTo(Supplied.VALUE)));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldPassThroughCheckedExceptionsGenerated()
+            throws IOException {
+        newGeneratedMixin(Testy.class, new Die()).die();
+    }
+
+    @Test(expected = AbstractMethodError.class)
+    public void shouldThrowIfUnimplementedGenerated()
+            throws IOException {
+        newGeneratedMixin(Testy.class, new Object()).die();
+    }
+
+    @Test
+    public void shouldUseDefaultValueGenerated() {
+        assertThat(newGeneratedMixin(DefaultMethodValue.class).foo(),
+                is(equalTo(defaultValue)));
+    }
+
+    @Test
+    public void shouldExposeDelegatesGenerated() {
+        final Duck duck = new Duck();
+        assertThat(newGeneratedMixin(Testy.class, duck).mixinDelegates()
+                .get(0), is(sameInstance(duck)));
+    }
+
+    @Test
+    public void shouldReuseGeneratedClassPerShape() {
+        assertThat(newGeneratedMixin(Testy.class, new Duck()).getClass(),
+                is(sameInstance(
+                        newGeneratedMixin(Testy.class, new Duck())
+                                .getClass())));
+    }
+
+    @Test
+    public void shouldGenerateAgainstInternalStaticsFromAnotherPackage()
+            throws ExecutionException, InterruptedException {
+        final ExecutorService threads = newGeneratedMixin(
+                ExecutorService.class, newSingleThreadExecutor());
+        try {
+            assertThat(threads.submit(() -> 3).get(), is(equalTo(3)));
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldUnloadDelegateClassLoaders()
+            throws ReflectiveOperationException, IOException,
+            InterruptedException {
+        final WeakReference<ClassLoader> loader = throwaway(
+                delegate -> newMixin(Supplier.class, delegate));
+        for (int i = 0; i < 100 && null != loader.get(); ++i) {
+            System.gc();
+            MILLISECONDS.sleep(10);
+        }
+
+        assertThat(loader.get(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldUnloadDelegateClassLoadersGenerated()
+            throws ReflectiveOperationException, IOException,
+            InterruptedException {
+        final WeakReference<ClassLoader> loader = throwaway(
+                delegate -> newGeneratedMixin(Supplier.class, delegate));
+        for (int i = 0; i < 100 && null != loader.get(); ++i) {
+            System.gc();
+            MILLISECONDS.sleep(10);
+        }
+
+        assertThat(loader.get(), is(nullValue()));
+    }
+
+    /**
+     * Mixes in a {@link Supplied} from a class loader of its own, and
+     * returns that loader, no longer otherwise used.
+     */
+    private static WeakReference<ClassLoader> throwaway(
+            final Function<Object, Supplier<?>> mixin)
+            throws ReflectiveOperationException, IOException {
+        final ClassLoader loader = new Throwaway(Supplied.class);
+        final Object delegate = loader.loadClass(Supplied.class.getName())
+                .newInstance();
+        assertThat(mixin.apply(delegate).get(), is(equalTo(Supplied.VALUE)));
+        return new WeakReference<>(loader);
+    }
+
     public interface DefaultMethodPublic {
         default void foo() {
         }
@@ -202,6 +365,10 @@ public class MixinTest {
                 throws IOException;
     }
 
+    interface Named {
+        String get();
+    }
+
     @Retention(RUNTIME)
     @Target(METHOD)
     @interface Cool {}
@@ -226,6 +393,19 @@ public class MixinTest {
         }
     }
 
+    static final class Echo {
+        private final String echo;
+
+        Echo(final String echo) {
+            this.echo = echo;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        public String quack(final int ignored) {
+            return echo;
+        }
+    }
+
     static class Die {
         @SuppressWarnings("UnusedDeclaration")
         public void die()
@@ -257,4 +437,51 @@ public class MixinTest {
         static void staticMethod() {
         }
     }
+
+    public static final class Supplied
+            implements Supplier<String> {
+        static final String VALUE = "Supplied";
+
+        @Override
+        public String get() {
+            return VALUE;
+        }
+    }
+
+    /** Loads its own copy of a class. */
+    private static final class Throwaway
+            extends ClassLoader {
+        private final Class<?> copied;
+
+        private Throwaway(final Class<?> copied) {
+            super(MixinTest.class.getClassLoader());
+            this.copied = copied;
+        }
+
+        @Override
+        protected Class<?> loadClass(final String name,
+                final boolean resolve)
+                throws ClassNotFoundException {
+            if (!copied.getName().equals(name))
+                return super.loadClass(name, resolve);
+            synchronized (getClassLoadingLock(name)) {
+                final Class<?> loaded = findLoadedClass(name);
+                if (null != loaded)
+                    return loaded;
+                final ByteArrayOutputStream bytes
+                        = new ByteArrayOutputStream();
+                try (final InputStream in = getParent().getResourceAsStream(
+                        name.replace('.', '/') + ".class")) {
+                    final byte[] buffer = new byte[4096];
+                    for (int n = in.read(buffer); -1 != n;
+                            n = in.read(buffer))
+                        bytes.write(buffer, 0, n);
+                } catch (final IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+                return defineClass(name, bytes.toByteArray(), 0,
+                        bytes.size());
+            }
+        }
+    }
 }
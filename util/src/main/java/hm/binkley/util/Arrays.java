@@ -32,6 +32,7 @@ import java.lang.reflect.Array;
 import java.util.Collection;
 
 import static java.lang.System.arraycopy;
+import static java.util.Arrays.copyOf;
 
 /**
  * {@code Arrays} holds simple functions for working with arrays.
@@ -40,6 +41,14 @@ import static java.lang.System.arraycopy;
  * @todo Replace with OSS solution
  */
 public final class Arrays {
+    /** The largest buffer capacity kept when a buffer is cleared. */
+    public static final int MAX_RETAINED_CAPACITY = 1 << 16;
+    private static final int DEFAULT_CAPACITY = 1 << 8;
+    private static final ThreadLocal<Bytes> threadBytes = ThreadLocal
+            .withInitial(Bytes::new);
+    private static final ThreadLocal<Ints> threadInts = ThreadLocal
+            .withInitial(Ints::new);
+
     /**
      * Returns the variadic parameter list as an array, relying on <a
      * href="https://docs.oracle .com/javase/specs/jls/se7/html/jls-15.html#jls-15.12.4.2">the
@@ -67,18 +76,244 @@ public final class Arrays {
      */
     @Nonnull
     @SafeVarargs
-    @SuppressWarnings("unchecked")
     public static <T> T[] cat(@Nonnull final T[] initial, final T... rest) {
         if (0 == rest.length)
             return initial;
-        final T[] array = (T[]) Array
-                .newInstance(initial.getClass().getComponentType(),
-                        initial.length + rest.length);
-        arraycopy(initial, 0, array, 0, initial.length);
+        final T[] array = copyOf(initial, initial.length + rest.length);
         arraycopy(rest, 0, array, initial.length, rest.length);
         return array;
     }
 
+    /**
+     * Returns the catenation of <var>arrays</var>, allocating the result
+     * once.  The result has the runtime type of the first array.  Returns
+     * a sole array as is.
+     *
+     * @param arrays the arrays to catenate, never missing
+     * @param <T> the array type
+     *
+     * @return the catenated array, never missing
+     */
+    @Nonnull
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    public static <T> T[] cat(@Nonnull final T[]... arrays) {
+        if (0 == arrays.length)
+            return (T[]) Array.newInstance(
+                    arrays.getClass().getComponentType().getComponentType(),
+                    0);
+        if (1 == arrays.length)
+            return arrays[0];
+        long length = 0;
+        for (final T[] a : arrays)
+            length += a.length;
+        final T[] array = copyOf(arrays[0], checkedLength(length));
+        int at = arrays[0].length;
+        for (int i = 1; i < arrays.length; ++i) {
+            arraycopy(arrays[i], 0, array, at, arrays[i].length);
+            at += arrays[i].length;
+        }
+        return array;
+    }
+
+    /**
+     * Returns the catenation of <var>arrays</var>, allocating the result
+     * once.
+     *
+     * @param arrays the arrays to catenate, never missing
+     *
+     * @return the catenated array, never missing
+     */
+    @Nonnull
+    public static byte[] cat(@Nonnull final byte[]... arrays) {
+        long length = 0;
+        for (final byte[] a : arrays)
+            length += a.length;
+        final byte[] array = new byte[checkedLength(length)];
+        int at = 0;
+        for (final byte[] a : arrays) {
+            arraycopy(a, 0, array, at, a.length);
+            at += a.length;
+        }
+        return array;
+    }
+
+    /**
+     * Returns the catenation of <var>arrays</var>, allocating the result
+     * once.
+     *
+     * @param arrays the arrays to catenate, never missing
+     *
+     * @return the catenated array, never missing
+     */
+    @Nonnull
+    public static short[] cat(@Nonnull final short[]... arrays) {
+        long length = 0;
+        for (final short[] a : arrays)
+            length += a.length;
+        final short[] array = new short[checkedLength(length)];
+        int at = 0;
+        for (final short[] a : arrays) {
+            arraycopy(a, 0, array, at, a.length);
+            at += a.length;
+        }
+        return array;
+    }
+
+    /**
+     * Returns the catenation of <var>arrays</var>, allocating the result
+     * once.
+     *
+     * @param arrays the arrays to catenate, never missing
+     *
+     * @return the catenated array, never missing
+     */
+    @Nonnull
+    public static char[] cat(@Nonnull final char[]... arrays) {
+        long length = 0;
+        for (final char[] a : arrays)
+            length += a.length;
+        final char[] array = new char[checkedLength(length)];
+        int at = 0;
+        for (final char[] a : arrays) {
+            arraycopy(a, 0, array, at, a.length);
+            at += a.length;
+        }
+        return array;
+    }
+
+    /**
+     * Returns the catenation of <var>arrays</var>, allocating the result
+     * once.
+     *
+     * @param arrays the arrays to catenate, never missing
+     *
+     * @return the catenated array, never missing
+     */
+    @Nonnull
+    public static int[] cat(@Nonnull final int[]... arrays) {
+        long length = 0;
+        for (final int[] a : arrays)
+            length += a.length;
+        final int[] array = new int[checkedLength(length)];
+        int at = 0;
+        for (final int[] a : arrays) {
+            arraycopy(a, 0, array, at, a.length);
+            at += a.length;
+        }
+        return array;
+    }
+
+    /**
+     * Returns the catenation of <var>arrays</var>, allocating the result
+     * once.
+     *
+     * @param arrays the arrays to catenate, never missing
+     *
+     * @return the catenated array, never missing
+     */
+    @Nonnull
+    public static long[] cat(@Nonnull final long[]... arrays) {
+        long length = 0;
+        for (final long[] a : arrays)
+            length += a.length;
+        final long[] array = new long[checkedLength(length)];
+        int at = 0;
+        for (final long[] a : arrays) {
+            arraycopy(a, 0, array, at, a.length);
+            at += a.length;
+        }
+        return array;
+    }
+
+    /**
+     * Returns the catenation of <var>arrays</var>, allocating the result
+     * once.
+     *
+     * @param arrays the arrays to catenate, never missing
+     *
+     * @return the catenated array, never missing
+     */
+    @Nonnull
+    public static float[] cat(@Nonnull final float[]... arrays) {
+        long length = 0;
+        for (final float[] a : arrays)
+            length += a.length;
+        final float[] array = new float[checkedLength(length)];
+        int at = 0;
+        for (final float[] a : arrays) {
+            arraycopy(a, 0, array, at, a.length);
+            at += a.length;
+        }
+        return array;
+    }
+
+    /**
+     * Returns the catenation of <var>arrays</var>, allocating the result
+     * once.
+     *
+     * @param arrays the arrays to catenate, never missing
+     *
+     * @return the catenated array, never missing
+     */
+    @Nonnull
+    public static double[] cat(@Nonnull final double[]... arrays) {
+        long length = 0;
+        for (final double[] a : arrays)
+            length += a.length;
+        final double[] array = new double[checkedLength(length)];
+        int at = 0;
+        for (final double[] a : arrays) {
+            arraycopy(a, 0, array, at, a.length);
+            at += a.length;
+        }
+        return array;
+    }
+
+    /**
+     * Returns the catenation of <var>arrays</var>, allocating the result
+     * once.
+     *
+     * @param arrays the arrays to catenate, never missing
+     *
+     * @return the catenated array, never missing
+     */
+    @Nonnull
+    public static boolean[] cat(@Nonnull final boolean[]... arrays) {
+        long length = 0;
+        for (final boolean[] a : arrays)
+            length += a.length;
+        final boolean[] array = new boolean[checkedLength(length)];
+        int at = 0;
+        for (final boolean[] a : arrays) {
+            arraycopy(a, 0, array, at, a.length);
+            at += a.length;
+        }
+        return array;
+    }
+
+    /**
+     * Gets this thread's reusable byte buffer, emptied.  Do not hold the
+     * buffer across calls which might also use it.
+     *
+     * @return the thread's byte buffer, never missing
+     */
+    @Nonnull
+    public static Bytes threadBytes() {
+        return threadBytes.get().clear();
+    }
+
+    /**
+     * Gets this thread's reusable int buffer, emptied.  Do not hold the
+     * buffer across calls which might also use it.
+     *
+     * @return the thread's int buffer, never missing
+     */
+    @Nonnull
+    public static Ints threadInts() {
+        return threadInts.get().clear();
+    }
+
     /**
      * Returns the <var>elements</var> as an array using reflection to
      * construct the containing array.
@@ -98,4 +333,188 @@ public final class Arrays {
         return elements
                 .toArray((U[]) Array.newInstance(type, elements.size()));
     }
+
+    private static int checkedLength(final long length) {
+        if (Integer.MAX_VALUE < length)
+            throw new OutOfMemoryError("Array too large: " + length);
+        return (int) length;
+    }
+
+    private static int grow(final int capacity, final int needed) {
+        return Math.max(needed, checkedLength(2L * capacity));
+    }
+
+    /**
+     * {@code Bytes} is a growable byte buffer for repeated catenation,
+     * reusing its storage when {@link #clear() cleared}.  It is not thread
+     * safe; see {@link #threadBytes()} for a per-thread instance.
+     */
+    public static final class Bytes {
+        private byte[] buffer = new byte[DEFAULT_CAPACITY];
+        private int size;
+
+        /**
+         * Appends <var>bytes</var>, growing as needed.
+         *
+         * @param bytes the bytes to append, never missing
+         *
+         * @return this buffer, never missing
+         */
+        @Nonnull
+        public Bytes append(@Nonnull final byte[] bytes) {
+            return append(bytes, 0, bytes.length);
+        }
+
+        /**
+         * Appends <var>length</var> of <var>bytes</var> from
+         * <var>offset</var>, growing as needed.
+         *
+         * @param bytes the bytes to append, never missing
+         * @param offset the starting offset in <var>bytes</var>
+         * @param length the count of bytes to append
+         *
+         * @return this buffer, never missing
+         */
+        @Nonnull
+        public Bytes append(@Nonnull final byte[] bytes, final int offset,
+                final int length) {
+            final int needed = checkedLength((long) size + length);
+            if (needed > buffer.length)
+                buffer = copyOf(buffer, grow(buffer.length, needed));
+            arraycopy(bytes, offset, buffer, size, length);
+            size = needed;
+            return this;
+        }
+
+        /**
+         * Gets the count of bytes appended since last cleared.
+         *
+         * @return the byte count
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Gets the backing storage, valid up to {@link #size()} until the
+         * next change to this buffer.  Does not copy.
+         *
+         * @return the backing storage, never missing
+         */
+        @Nonnull
+        public byte[] buffer() {
+            return buffer;
+        }
+
+        /**
+         * Copies the appended bytes.
+         *
+         * @return a new array of the appended bytes, never missing
+         */
+        @Nonnull
+        public byte[] toArray() {
+            return copyOf(buffer, size);
+        }
+
+        /**
+         * Empties this buffer for reuse, releasing storage larger than
+         * {@link #MAX_RETAINED_CAPACITY}.
+         *
+         * @return this buffer, never missing
+         */
+        @Nonnull
+        public Bytes clear() {
+            if (MAX_RETAINED_CAPACITY < buffer.length)
+                buffer = new byte[DEFAULT_CAPACITY];
+            size = 0;
+            return this;
+        }
+    }
+
+    /**
+     * {@code Ints} is a growable int buffer for repeated catenation, reusing
+     * its storage when {@link #clear() cleared}.  It is not thread safe; see
+     * {@link #threadInts()} for a per-thread instance.
+     */
+    public static final class Ints {
+        private int[] buffer = new int[DEFAULT_CAPACITY];
+        private int size;
+
+        /**
+         * Appends <var>ints</var>, growing as needed.
+         *
+         * @param ints the ints to append, never missing
+         *
+         * @return this buffer, never missing
+         */
+        @Nonnull
+        public Ints append(@Nonnull final int[] ints) {
+            return append(ints, 0, ints.length);
+        }
+
+        /**
+         * Appends <var>length</var> of <var>ints</var> from
+         * <var>offset</var>, growing as needed.
+         *
+         * @param ints the ints to append, never missing
+         * @param offset the starting offset in <var>ints</var>
+         * @param length the count of ints to append
+         *
+         * @return this buffer, never missing
+         */
+        @Nonnull
+        public Ints append(@Nonnull final int[] ints, final int offset,
+                final int length) {
+            final int needed = checkedLength((long) size + length);
+            if (needed > buffer.length)
+                buffer = copyOf(buffer, grow(buffer.length, needed));
+            arraycopy(ints, offset, buffer, size, length);
+            size = needed;
+            return this;
+        }
+
+        /**
+         * Gets the count of ints appended since last cleared.
+         *
+         * @return the int count
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Gets the backing storage, valid up to {@link #size()} until the
+         * next change to this buffer.  Does not copy.
+         *
+         * @return the backing storage, never missing
+         */
+        @Nonnull
+        public int[] buffer() {
+            return buffer;
+        }
+
+        /**
+         * Copies the appended ints.
+         *
+         * @return a new array of the appended ints, never missing
+         */
+        @Nonnull
+        public int[] toArray() {
+            return copyOf(buffer, size);
+        }
+
+        /**
+         * Empties this buffer for reuse, releasing storage larger than
+         * {@link #MAX_RETAINED_CAPACITY}.
+         *
+         * @return this buffer, never missing
+         */
+        @Nonnull
+        public Ints clear() {
+            if (MAX_RETAINED_CAPACITY < buffer.length)
+                buffer = new int[DEFAULT_CAPACITY];
+            size = 0;
+            return this;
+        }
+    }
 }
@@ -2,22 +2,45 @@ package hm.binkley.util;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import static java.lang.Long.MAX_VALUE;
 import static java.util.Spliterator.IMMUTABLE;
 import static java.util.Spliterator.NONNULL;
 import static java.util.Spliterator.ORDERED;
 import static java.util.Spliterator.SORTED;
 import static java.util.Spliterators.spliteratorUnknownSize;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 /**
  * {@code LinkedIterable} is a read-only iterable facade over a linked series of values defined by a
  * head value and traversal and termination functions.  The functions should not structurally modify
  * any underlying objects: repeated iterations or stream traversal should produce the same values in
  * the same order; best if they are pure functions.
+ * <p>
+ * Spliterators split off prefix batches into arrays, growing the batch size arithmetically for
+ * unknown sizes similar to {@link java.util.Spliterators#spliteratorUnknownSize(Iterator, int)},
+ * but starting with smaller batches as traversals of linked values are typically short or costly.
+ * Given a {@link #over(Object, Predicate, Function, long) size estimate}, splits are instead
+ * balanced against the estimated remaining values.
+ * <p>
+ * For costly traversal functions, {@link #memoized(Object, Predicate, Function, int) memoized}
+ * iterables remember traversals between iterations, and {@link #prefetching(Object, Predicate,
+ * Function, Executor, int) prefetching} iterables traverse ahead of the consumer in the
+ * background.
  *
  * @param <T> the value type
  *
@@ -27,10 +50,15 @@ public final class LinkedIterable<T>
         implements Iterable<T> {
     /** The characteristics for spliterators. */
     public static final int SPLITERATOR_CHARACTERISTICS = IMMUTABLE | NONNULL | ORDERED | SORTED;
+    /** The batch size increment for spliterators of unknown size. */
+    public static final int SPLITERATOR_BATCH_UNIT = 1 << 6;
+    /** The largest batch size for spliterators. */
+    public static final int SPLITERATOR_MAX_BATCH = 1 << 25;
 
     private final T head;
     private final Function<T, T> traverse;
     private final Predicate<T> terminate;
+    private final long estimatedSize;
 
     /**
      * Creates a new {@code LinkedIterable} for the given parameters.  If <var>head</var> terminates
@@ -46,7 +74,29 @@ public final class LinkedIterable<T>
     @Nonnull
     public static <T> Iterable<T> over(@Nullable final T head,
             @Nonnull final Predicate<T> terminate, @Nonnull final Function<T, T> traverse) {
-        return new LinkedIterable<>(head, terminate, traverse);
+        return new LinkedIterable<>(head, terminate, traverse, MAX_VALUE);
+    }
+
+    /**
+     * Creates a new {@code LinkedIterable} for the given parameters.  If <var>head</var> terminates
+     * the iterable is empty.  Spliterators use <var>estimatedSize</var> to balance splits; it need
+     * not be exact.
+     *
+     * @param <T> the value type
+     * @param head the optional head value
+     * @param terminate the termination function, never missing
+     * @param traverse the traversal function, never missing
+     * @param estimatedSize the estimated count of values, or {@code Long.MAX_VALUE} if unknown
+     *
+     * @return the new {@code LinkedIterable}, never missing
+     */
+    @Nonnull
+    public static <T> Iterable<T> over(@Nullable final T head,
+            @Nonnull final Predicate<T> terminate, @Nonnull final Function<T, T> traverse,
+            final long estimatedSize) {
+        if (0 > estimatedSize)
+            throw new IllegalArgumentException("Negative estimated size: " + estimatedSize);
+        return new LinkedIterable<>(head, terminate, traverse, estimatedSize);
     }
 
     /**
@@ -63,14 +113,88 @@ public final class LinkedIterable<T>
     @Nonnull
     public static <T> Iterable<T> over(@Nonnull final Predicate<T> terminate,
             @Nonnull final Function<T, T> traverse) {
-        return new LinkedIterable<>(traverse.apply(null), terminate, traverse);
+        return new LinkedIterable<>(traverse.apply(null), terminate, traverse, MAX_VALUE);
+    }
+
+    /**
+     * Creates a new {@code LinkedIterable} for the given parameters which remembers every
+     * traversal, so that repeated iterations do not call <var>traverse</var> again for the same
+     * value.  Requires values to be suitable as hash keys, and <var>traverse</var> to be a pure
+     * function.  If <var>head</var> terminates the iterable is empty.
+     *
+     * @param <T> the value type
+     * @param head the optional head value
+     * @param terminate the termination function, never missing
+     * @param traverse the traversal function, never missing
+     *
+     * @return the new {@code LinkedIterable}, never missing
+     *
+     * @see #memoized(Object, Predicate, Function, int)
+     */
+    @Nonnull
+    public static <T> Iterable<T> memoized(@Nullable final T head,
+            @Nonnull final Predicate<T> terminate, @Nonnull final Function<T, T> traverse) {
+        return new LinkedIterable<>(head, terminate, new Memoized<>(traverse, Integer.MAX_VALUE),
+                MAX_VALUE);
+    }
+
+    /**
+     * Creates a new {@code LinkedIterable} for the given parameters which remembers the first
+     * <var>retain</var> traversals, so that repeated iterations do not call <var>traverse</var>
+     * again for at least that many leading values.  Requires values to be suitable as hash keys,
+     * and <var>traverse</var> to be a pure function.  If <var>head</var> terminates the iterable is
+     * empty.
+     *
+     * @param <T> the value type
+     * @param head the optional head value
+     * @param terminate the termination function, never missing
+     * @param traverse the traversal function, never missing
+     * @param retain the count of traversals to remember, always positive
+     *
+     * @return the new {@code LinkedIterable}, never missing
+     *
+     * @see #memoized(Object, Predicate, Function)
+     */
+    @Nonnull
+    public static <T> Iterable<T> memoized(@Nullable final T head,
+            @Nonnull final Predicate<T> terminate, @Nonnull final Function<T, T> traverse,
+            final int retain) {
+        if (1 > retain)
+            throw new IllegalArgumentException("Non-positive retention: " + retain);
+        return new LinkedIterable<>(head, terminate, new Memoized<>(traverse, retain), MAX_VALUE);
+    }
+
+    /**
+     * Creates a new prefetching iterable for the given parameters.  Each iterator calls
+     * <var>traverse</var> on <var>threads</var> for up to the next <var>ahead</var> values while
+     * the consumer processes the current one.  Exceptions from <var>terminate</var> or
+     * <var>traverse</var> are rethrown to the consumer when it reaches the failed value.  If
+     * <var>head</var> terminates the iterable is empty.
+     *
+     * @param <T> the value type
+     * @param head the optional head value
+     * @param terminate the termination function, never missing
+     * @param traverse the traversal function, never missing
+     * @param threads the executor for traversals, never missing
+     * @param ahead the count of values to prefetch, always positive
+     *
+     * @return the new prefetching iterable, never missing
+     */
+    @Nonnull
+    public static <T> Iterable<T> prefetching(@Nullable final T head,
+            @Nonnull final Predicate<T> terminate, @Nonnull final Function<T, T> traverse,
+            @Nonnull final Executor threads, final int ahead) {
+        if (1 > ahead)
+            throw new IllegalArgumentException("Non-positive prefetch count: " + ahead);
+        return new Prefetching<>(head, terminate, traverse, threads, ahead);
     }
 
     private LinkedIterable(final T head, final Predicate<T> terminate,
-            final Function<T, T> traverse) {
+            final Function<T, T> traverse, final long estimatedSize) {
         this.head = head;
         this.terminate = terminate;
         this.traverse = traverse;
+        this.estimatedSize = estimatedSize;
     }
 
     @Override
@@ -94,6 +218,200 @@ public final class LinkedIterable<T>
 
     @Override
     public Spliterator<T> spliterator() {
-        return spliteratorUnknownSize(iterator(), SPLITERATOR_CHARACTERISTICS);
+        return new LinkedSpliterator<>(head, terminate, traverse, estimatedSize);
+    }
+
+    private static final class LinkedSpliterator<T>
+            implements Spliterator<T> {
+        private final Predicate<T> terminate;
+        private final Function<T, T> traverse;
+        private T next;
+        private long estimate;
+        private int batch;
+
+        private LinkedSpliterator(final T head, final Predicate<T> terminate,
+                final Function<T, T> traverse, final long estimate) {
+            next = head;
+            this.terminate = terminate;
+            this.traverse = traverse;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super T> action) {
+            if (terminate.test(next))
+                return false;
+            final T current = next;
+            next = traverse.apply(current);
+            consumed(1);
+            action.accept(current);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super T> action) {
+            T current = next;
+            while (!terminate.test(current)) {
+                final T value = current;
+                current = traverse.apply(value);
+                next = current;
+                action.accept(value);
+            }
+            estimate = 0;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            T current = next;
+            if (terminate.test(current))
+                return null;
+            final int n = nextBatch();
+            final Object[] values = new Object[n];
+            int i = 0;
+            do {
+                values[i++] = current;
+                current = traverse.apply(current);
+            } while (i < n && !terminate.test(current));
+            next = current;
+            consumed(i);
+            return Spliterators.spliterator(values, 0, i, SPLITERATOR_CHARACTERISTICS);
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return SPLITERATOR_CHARACTERISTICS;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return null;
+        }
+
+        private int nextBatch() {
+            if (MAX_VALUE == estimate)
+                return batch = Math.min(batch + SPLITERATOR_BATCH_UNIT,
+                        SPLITERATOR_MAX_BATCH);
+            // Balanced: take half the estimated remaining values
+            return (int) Math.min(Math.max(1L, (estimate + 1) / 2), SPLITERATOR_MAX_BATCH);
+        }
+
+        private void consumed(final int n) {
+            if (MAX_VALUE == estimate)
+                return;
+            // An underestimate falls back to unknown size
+            estimate = n <= estimate ? estimate - n : MAX_VALUE;
+        }
+    }
+
+    private static final class Memoized<T>
+            implements Function<T, T> {
+        private final Function<T, T> traverse;
+        private final Map<T, T> traversed = new HashMap<>();
+        private final int retain;
+
+        private Memoized(final Function<T, T> traverse, final int retain) {
+            this.traverse = traverse;
+            this.retain = retain;
+        }
+
+        @Override
+        public T apply(final T value) {
+            synchronized (traversed) {
+                final T next = traversed.get(value);
+                if (null != next || traversed.containsKey(value))
+                    return next;
+            }
+            // Traverse outside the lock: a duplicate traversal is cheaper than blocking
+            final T next = traverse.apply(value);
+            synchronized (traversed) {
+                if (retain > traversed.size())
+                    traversed.put(value, next);
+            }
+            return next;
+        }
+    }
+
+    private static final class Prefetching<T>
+            implements Iterable<T> {
+        private final T head;
+        private final Predicate<T> terminate;
+        private final Function<T, T> traverse;
+        private final Executor threads;
+        private final int ahead;
+
+        private Prefetching(final T head, final Predicate<T> terminate,
+                final Function<T, T> traverse, final Executor threads, final int ahead) {
+            this.head = head;
+            this.terminate = terminate;
+            this.traverse = traverse;
+            this.threads = threads;
+            this.ahead = ahead;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private final Deque<CompletableFuture<T>> prefetched = new ArrayDeque<>(
+                        ahead + 1);
+                private boolean terminated;
+
+                {
+                    prefetched.add(completedFuture(head));
+                    prefetch();
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return !terminate.test(join(prefetched.getFirst()));
+                }
+
+                @Override
+                public T next() {
+                    final T next = join(prefetched.removeFirst());
+                    if (prefetched.isEmpty())
+                        prefetched.add(completedFuture(traverse.apply(next)));
+                    prefetch();
+                    return next;
+                }
+
+                private void prefetch() {
+                    while (!terminated && ahead >= prefetched.size()) {
+                        final CompletableFuture<T> last = prefetched.getLast();
+                        if (last.isDone() && !last.isCompletedExceptionally()
+                                && terminate.test(last.join())) {
+                            terminated = true;
+                            return;
+                        }
+                        // Terminal values pass through so that traverse is never called on them
+                        prefetched.add(last.thenApplyAsync(
+                                value -> terminate.test(value) ? value : traverse.apply(value),
+                                threads));
+                    }
+                }
+            };
+        }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return spliteratorUnknownSize(iterator(), SPLITERATOR_CHARACTERISTICS);
+        }
+
+        private static <T> T join(final CompletableFuture<T> future) {
+            try {
+                return future.join();
+            } catch (final CompletionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                if (cause instanceof Error)
+                    throw (Error) cause;
+                throw e;
+            }
+        }
     }
 }
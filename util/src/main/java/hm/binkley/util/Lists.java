@@ -30,8 +30,31 @@ package hm.binkley.util;
 import javax.annotation.Nonnull;
 import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
 import java.util.function.IntSupplier;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static java.lang.Math.floorMod;
+import static java.lang.Math.min;
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterator.SIZED;
+import static java.util.Spliterator.SUBSIZED;
 
 /**
  * {@code Lists} has methods on {@code java.util.List}.
@@ -75,22 +98,349 @@ public final class Lists {
         return buckets;
     }
 
+    /**
+     * Partitions the given <var>list</var> into as few buckets as possible
+     * of at most <var>size</var> items, as evenly as possible.  Buckets are
+     * contiguous sublists of <var>list</var> if it supports {@link
+     * RandomAccess random access}, else are copies made in a single pass.
+     *
+     * @param list the list to partition, never missing
+     * @param size the largest bucket size, always positive
+     * @param <T> the list item type
+     *
+     * @return the list of buckets, never missing
+     */
+    @Nonnull
+    public static <T> List<List<T>> partitionBySize(
+            @Nonnull final List<T> list, final int size) {
+        if (1 > size)
+            throw new IllegalArgumentException(
+                    "Non-positive bucket size: " + size);
+        final int n = list.size() / size + (0 == list.size() % size ? 0 : 1);
+        return buckets(list, evenEnds(list.size(), n));
+    }
+
+    /**
+     * Partitions the given <var>list</var> into <var>n</var> buckets with
+     * total <var>weight</var> as evenly as possible.  Buckets are contiguous
+     * sublists of <var>list</var> if it supports {@link RandomAccess random
+     * access}, else are copies made in a single pass.  Items with heavy
+     * weights may leave buckets empty, including leading ones.
+     *
+     * @param list the list to partition, never missing
+     * @param n the bucket count, always positive
+     * @param weight the item weight function, never negative, never missing
+     * @param <T> the list item type
+     *
+     * @return the list of buckets, never missing
+     */
+    @Nonnull
+    public static <T> List<List<T>> partitionByWeight(
+            @Nonnull final List<T> list, final int n,
+            @Nonnull final ToLongFunction<? super T> weight) {
+        if (1 > n)
+            throw new IllegalArgumentException(
+                    "Non-positive bucket count: " + n);
+        final long[] cumulative = new long[list.size()];
+        long total = 0;
+        int i = 0;
+        for (final T item : list) {
+            final long w = weight.applyAsLong(item);
+            if (0 > w)
+                throw new IllegalArgumentException(
+                        "Negative weight: " + w + " for " + item);
+            cumulative[i++] = total += w;
+        }
+
+        if (0 == total)
+            return buckets(list, evenEnds(cumulative.length, n));
+
+        // End each bucket at the cut closest to its share of the total
+        final int[] ends = new int[n];
+        int end = 0;
+        for (int b = 0; b < n - 1; ++b) {
+            final double share = (double) total * (b + 1) / n;
+            while (end < cumulative.length && cumulative[end] <= share)
+                ++end;
+            if (end < cumulative.length && cumulative[end] - share
+                    < share - (0 == end ? 0 : cumulative[end - 1]))
+                ++end;
+            ends[b] = end;
+        }
+        ends[n - 1] = cumulative.length;
+        return buckets(list, ends);
+    }
+
+    /**
+     * Partitions the given <var>list</var> into one bucket per thread of
+     * <var>threads</var>, and processes each bucket with <var>consumer</var>
+     * in parallel, returning when all are processed.  Buckets number the
+     * lesser of the list size and the parallelism of <var>threads</var>, and
+     * differ in size by at most one item.  Exceptions thrown by
+     * <var>consumer</var> are rethrown.
+     *
+     * @param list the list to process, never missing
+     * @param threads the fork-join pool for processing, never missing
+     * @param consumer the bucket processing, never missing
+     * @param <T> the list item type
+     */
+    public static <T> void parallelForEachPartition(@Nonnull final List<T> list,
+            @Nonnull final ForkJoinPool threads,
+            @Nonnull final Consumer<? super List<T>> consumer) {
+        final int size = list.size();
+        if (0 == size)
+            return;
+        final List<List<T>> buckets = buckets(list,
+                evenEnds(size, min(size, threads.getParallelism())));
+        threads.invoke(
+                new ForEachPartition<>(buckets, 0, buckets.size(), consumer));
+    }
+
+    /**
+     * Creates a read-only, random access list view computing each item from
+     * its index with <var>get</var>.  The view spliterator splits evenly by
+     * index, binding to <var>size</var> at first use.
+     *
+     * @param get the item computation, never missing
+     * @param size the list size, never missing
+     * @param <T> the list item type
+     *
+     * @return the list view, never missing
+     */
     @Nonnull
     public static <T> List<T> list(@Nonnull final FromIntFunction<T> get,
             @Nonnull final IntSupplier size) {
         return new ListList<>(get, size);
     }
 
+    /**
+     * Creates a read-only, random access list view computing each item from
+     * its index with <var>get</var>, remembering up to <var>cached</var>
+     * items.  The cache is direct-mapped by index: an index evicts any
+     * earlier item sharing its slot.
+     *
+     * @param get the item computation, never missing
+     * @param size the list size, never missing
+     * @param cached the cache capacity, always positive
+     * @param <T> the list item type
+     *
+     * @return the memoizing list view, never missing
+     *
+     * @see #list(FromIntFunction, IntSupplier)
+     */
+    @Nonnull
+    public static <T> List<T> list(@Nonnull final FromIntFunction<T> get,
+            @Nonnull final IntSupplier size, final int cached) {
+        if (1 > cached)
+            throw new IllegalArgumentException(
+                    "Non-positive cache capacity: " + cached);
+        return new ListList<>(new Cached<>(get, cached), size);
+    }
+
+    /**
+     * Creates a read-only, random access list view of {@code int} items
+     * computed from their index with <var>get</var>.  Primitive access
+     * through {@link IntList#getAsInt(int)} and {@link IntList#intStream()}
+     * does not box.
+     *
+     * @param get the item computation, never missing
+     * @param size the list size, never missing
+     *
+     * @return the list view, never missing
+     */
+    @Nonnull
+    public static IntList intList(@Nonnull final IntUnaryOperator get,
+            @Nonnull final IntSupplier size) {
+        return new IntListList(get, size);
+    }
+
+    /**
+     * Creates a read-only, random access list view of {@code long} items
+     * computed from their index with <var>get</var>.  Primitive access
+     * through {@link LongList#getAsLong(int)} and {@link
+     * LongList#longStream()} does not box.
+     *
+     * @param get the item computation, never missing
+     * @param size the list size, never missing
+     *
+     * @return the list view, never missing
+     */
+    @Nonnull
+    public static LongList longList(@Nonnull final IntToLongFunction get,
+            @Nonnull final IntSupplier size) {
+        return new LongListList(get, size);
+    }
+
+    /**
+     * Creates a read-only, random access list view of {@code double} items
+     * computed from their index with <var>get</var>.  Primitive access
+     * through {@link DoubleList#getAsDouble(int)} and {@link
+     * DoubleList#doubleStream()} does not box.
+     *
+     * @param get the item computation, never missing
+     * @param size the list size, never missing
+     *
+     * @return the list view, never missing
+     */
+    @Nonnull
+    public static DoubleList doubleList(
+            @Nonnull final IntToDoubleFunction get,
+            @Nonnull final IntSupplier size) {
+        return new DoubleListList(get, size);
+    }
+
     private Lists() {
     }
 
+    private static int[] evenEnds(final int size, final int n) {
+        if (0 == n)
+            return new int[0];
+        final int div = size / n;
+        final int mod = size % n;
+        final int[] ends = new int[n];
+        int end = 0;
+        for (int i = 0; i < n; ++i)
+            ends[i] = end += i < mod ? div + 1 : div;
+        return ends;
+    }
+
+    private static <T> List<List<T>> buckets(final List<T> list,
+            final int[] ends) {
+        final List<List<T>> buckets = new ArrayList<>(ends.length);
+        int start = 0;
+        if (list instanceof RandomAccess) {
+            for (final int end : ends) {
+                buckets.add(list.subList(start, end));
+                start = end;
+            }
+            return buckets;
+        }
+        // Sublists of linked lists walk from the head on each access
+        final Iterator<T> it = list.iterator();
+        for (final int end : ends) {
+            final List<T> bucket = new ArrayList<>(end - start);
+            for (int i = start; i < end; ++i)
+                bucket.add(it.next());
+            buckets.add(bucket);
+            start = end;
+        }
+        return buckets;
+    }
+
     @FunctionalInterface
     public interface FromIntFunction<T> {
         T apply(final int i);
     }
 
+    /** {@code IntList} is a list of {@code int} with unboxed access. */
+    public interface IntList
+            extends List<Integer> {
+        /**
+         * Gets the item at <var>index</var> without boxing.
+         *
+         * @param index the item index
+         *
+         * @return the item
+         */
+        int getAsInt(final int index);
+
+        @Override
+        Spliterator.OfInt spliterator();
+
+        /**
+         * Streams the items without boxing.
+         *
+         * @return the item stream, never missing
+         */
+        @Nonnull
+        default IntStream intStream() {
+            return StreamSupport.intStream(spliterator(), false);
+        }
+    }
+
+    /** {@code LongList} is a list of {@code long} with unboxed access. */
+    public interface LongList
+            extends List<Long> {
+        /**
+         * Gets the item at <var>index</var> without boxing.
+         *
+         * @param index the item index
+         *
+         * @return the item
+         */
+        long getAsLong(final int index);
+
+        @Override
+        Spliterator.OfLong spliterator();
+
+        /**
+         * Streams the items without boxing.
+         *
+         * @return the item stream, never missing
+         */
+        @Nonnull
+        default LongStream longStream() {
+            return StreamSupport.longStream(spliterator(), false);
+        }
+    }
+
+    /** {@code DoubleList} is a list of {@code double} with unboxed access. */
+    public interface DoubleList
+            extends List<Double> {
+        /**
+         * Gets the item at <var>index</var> without boxing.
+         *
+         * @param index the item index
+         *
+         * @return the item
+         */
+        double getAsDouble(final int index);
+
+        @Override
+        Spliterator.OfDouble spliterator();
+
+        /**
+         * Streams the items without boxing.
+         *
+         * @return the item stream, never missing
+         */
+        @Nonnull
+        default DoubleStream doubleStream() {
+            return StreamSupport.doubleStream(spliterator(), false);
+        }
+    }
+
+    private static final class ForEachPartition<T>
+            extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final List<List<T>> buckets;
+        private final int from;
+        private final int to;
+        private final Consumer<? super List<T>> consumer;
+
+        private ForEachPartition(final List<List<T>> buckets, final int from,
+                final int to, final Consumer<? super List<T>> consumer) {
+            this.buckets = buckets;
+            this.from = from;
+            this.to = to;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            if (1 == to - from) {
+                consumer.accept(buckets.get(from));
+                return;
+            }
+            final int mid = (from + to) >>> 1;
+            invokeAll(new ForEachPartition<>(buckets, from, mid, consumer),
+                    new ForEachPartition<>(buckets, mid, to, consumer));
+        }
+    }
+
     private static final class ListList<T>
-            extends AbstractList<T> {
+            extends AbstractList<T>
+            implements RandomAccess {
         private final FromIntFunction<T> get;
         private final IntSupplier size;
 
@@ -109,5 +459,320 @@ public final class Lists {
         public int size() {
             return size.getAsInt();
         }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return new ObjectSpliterator<>(get, size, 0, -1);
+        }
+    }
+
+    private static final class IntListList
+            extends AbstractList<Integer>
+            implements IntList, RandomAccess {
+        private final IntUnaryOperator get;
+        private final IntSupplier size;
+
+        private IntListList(final IntUnaryOperator get,
+                final IntSupplier size) {
+            this.get = get;
+            this.size = size;
+        }
+
+        @Override
+        public int getAsInt(final int index) {
+            return get.applyAsInt(index);
+        }
+
+        @Override
+        public Integer get(final int index) {
+            return get.applyAsInt(index);
+        }
+
+        @Override
+        public int size() {
+            return size.getAsInt();
+        }
+
+        @Override
+        public Spliterator.OfInt spliterator() {
+            return new IntSpliterator(get, size, 0, -1);
+        }
+    }
+
+    private static final class LongListList
+            extends AbstractList<Long>
+            implements LongList, RandomAccess {
+        private final IntToLongFunction get;
+        private final IntSupplier size;
+
+        private LongListList(final IntToLongFunction get,
+                final IntSupplier size) {
+            this.get = get;
+            this.size = size;
+        }
+
+        @Override
+        public long getAsLong(final int index) {
+            return get.applyAsLong(index);
+        }
+
+        @Override
+        public Long get(final int index) {
+            return get.applyAsLong(index);
+        }
+
+        @Override
+        public int size() {
+            return size.getAsInt();
+        }
+
+        @Override
+        public Spliterator.OfLong spliterator() {
+            return new LongSpliterator(get, size, 0, -1);
+        }
+    }
+
+    private static final class DoubleListList
+            extends AbstractList<Double>
+            implements DoubleList, RandomAccess {
+        private final IntToDoubleFunction get;
+        private final IntSupplier size;
+
+        private DoubleListList(final IntToDoubleFunction get,
+                final IntSupplier size) {
+            this.get = get;
+            this.size = size;
+        }
+
+        @Override
+        public double getAsDouble(final int index) {
+            return get.applyAsDouble(index);
+        }
+
+        @Override
+        public Double get(final int index) {
+            return get.applyAsDouble(index);
+        }
+
+        @Override
+        public int size() {
+            return size.getAsInt();
+        }
+
+        @Override
+        public Spliterator.OfDouble spliterator() {
+            return new DoubleSpliterator(get, size, 0, -1);
+        }
+    }
+
+    private static final class Cached<T>
+            implements FromIntFunction<T> {
+        private final FromIntFunction<T> get;
+        private final Entry<T>[] entries;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Cached(final FromIntFunction<T> get, final int capacity) {
+            this.get = get;
+            entries = (Entry<T>[]) new Entry[capacity];
+        }
+
+        @Override
+        public T apply(final int i) {
+            final int slot = floorMod(i, entries.length);
+            // Entries are immutable, so racing threads at worst recompute
+            final Entry<T> entry = entries[slot];
+            if (null != entry && i == entry.index)
+                return entry.value;
+            final T value = get.apply(i);
+            entries[slot] = new Entry<>(i, value);
+            return value;
+        }
+
+        private static final class Entry<T> {
+            private final int index;
+            private final T value;
+
+            private Entry(final int index, final T value) {
+                this.index = index;
+                this.value = value;
+            }
+        }
+    }
+
+    /**
+     * Splits evenly by index, binding the fence to the list size at first
+     * use as {@code ArrayList} does.
+     */
+    private abstract static class IndexSpliterator<S> {
+        protected final IntSupplier size;
+        protected int index;
+        private int fence;
+
+        protected IndexSpliterator(final IntSupplier size, final int origin,
+                final int fence) {
+            this.size = size;
+            index = origin;
+            this.fence = fence;
+        }
+
+        protected final int fence() {
+            if (0 > fence)
+                fence = size.getAsInt();
+            return fence;
+        }
+
+        public final S trySplit() {
+            final int hi = fence();
+            final int lo = index;
+            final int mid = (lo + hi) >>> 1;
+            if (lo >= mid)
+                return null;
+            index = mid;
+            return split(lo, mid);
+        }
+
+        protected abstract S split(final int origin, final int fence);
+
+        public final long estimateSize() {
+            return fence() - index;
+        }
+
+        public final int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
+    private static final class ObjectSpliterator<T>
+            extends IndexSpliterator<Spliterator<T>>
+            implements Spliterator<T> {
+        private final FromIntFunction<T> get;
+
+        private ObjectSpliterator(final FromIntFunction<T> get,
+                final IntSupplier size, final int origin, final int fence) {
+            super(size, origin, fence);
+            this.get = get;
+        }
+
+        @Override
+        protected Spliterator<T> split(final int origin, final int fence) {
+            return new ObjectSpliterator<>(get, size, origin, fence);
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super T> action) {
+            if (index >= fence())
+                return false;
+            action.accept(get.apply(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super T> action) {
+            final int hi = fence();
+            for (int i = index; i < hi; ++i)
+                action.accept(get.apply(i));
+            index = hi;
+        }
+    }
+
+    private static final class IntSpliterator
+            extends IndexSpliterator<Spliterator.OfInt>
+            implements Spliterator.OfInt {
+        private final IntUnaryOperator get;
+
+        private IntSpliterator(final IntUnaryOperator get,
+                final IntSupplier size, final int origin, final int fence) {
+            super(size, origin, fence);
+            this.get = get;
+        }
+
+        @Override
+        protected Spliterator.OfInt split(final int origin, final int fence) {
+            return new IntSpliterator(get, size, origin, fence);
+        }
+
+        @Override
+        public boolean tryAdvance(final IntConsumer action) {
+            if (index >= fence())
+                return false;
+            action.accept(get.applyAsInt(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final IntConsumer action) {
+            final int hi = fence();
+            for (int i = index; i < hi; ++i)
+                action.accept(get.applyAsInt(i));
+            index = hi;
+        }
+    }
+
+    private static final class LongSpliterator
+            extends IndexSpliterator<Spliterator.OfLong>
+            implements Spliterator.OfLong {
+        private final IntToLongFunction get;
+
+        private LongSpliterator(final IntToLongFunction get,
+                final IntSupplier size, final int origin, final int fence) {
+            super(size, origin, fence);
+            this.get = get;
+        }
+
+        @Override
+        protected Spliterator.OfLong split(final int origin,
+                final int fence) {
+            return new LongSpliterator(get, size, origin, fence);
+        }
+
+        @Override
+        public boolean tryAdvance(final LongConsumer action) {
+            if (index >= fence())
+                return false;
+            action.accept(get.applyAsLong(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final LongConsumer action) {
+            final int hi = fence();
+            for (int i = index; i < hi; ++i)
+                action.accept(get.applyAsLong(i));
+            index = hi;
+        }
+    }
+
+    private static final class DoubleSpliterator
+            extends IndexSpliterator<Spliterator.OfDouble>
+            implements Spliterator.OfDouble {
+        private final IntToDoubleFunction get;
+
+        private DoubleSpliterator(final IntToDoubleFunction get,
+                final IntSupplier size, final int origin, final int fence) {
+            super(size, origin, fence);
+            this.get = get;
+        }
+
+        @Override
+        protected Spliterator.OfDouble split(final int origin,
+                final int fence) {
+            return new DoubleSpliterator(get, size, origin, fence);
+        }
+
+        @Override
+        public boolean tryAdvance(final DoubleConsumer action) {
+            if (index >= fence())
+                return false;
+            action.accept(get.applyAsDouble(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final DoubleConsumer action) {
+            final int hi = fence();
+            for (int i = index; i < hi; ++i)
+                action.accept(get.applyAsDouble(i));
+            index = hi;
+        }
     }
 }
@@ -6,17 +6,18 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 
+import static java.lang.Integer.MAX_VALUE;
 import static java.lang.String.format;
 import static java.lang.System.lineSeparator;
 import static java.lang.Thread.currentThread;
 import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableList;
-import static java.util.stream.Collectors.joining;
 
 /**
  * {@code Notices} is one possible implementation for Martin Fowler's
@@ -38,6 +39,13 @@ import static java.util.stream.Collectors.joining;
  * return a value or fail} or {@link #returnOrFail(Supplier) compute and
  * return a value or fail}, in all cases thrown a single, top-level exception
  * summarizing notices.
+ * <p>
+ * For noisy inputs notices may be {@link #capped(int) capped}, keeping only
+ * the first several exceptions and counting the rest, and {@link
+ * #deduplicated() deduplicated}, keeping only the first exception for each
+ * distinct message.  In all cases the {@link #summary() summary} lists each
+ * distinct message once with its occurrence count, so is proportional to the
+ * distinct messages rather than to all notices.
  *
  * @param <E> the top-level exception type for notices
  *
@@ -49,7 +57,11 @@ import static java.util.stream.Collectors.joining;
 public final class Notices<E extends Exception>
         implements Iterable<Exception> {
     private final List<Exception> notices;
+    private final Map<String, Integer> messages;
     private final BiFunction<String, Throwable, E> ctor;
+    private final int cap;
+    private final boolean deduplicate;
+    private int size;
 
     /**
      * Creates an empty set of notices based on {@code RuntimeException}.  Thus
@@ -79,13 +91,20 @@ public final class Notices<E extends Exception>
     @Nonnull
     public static <E extends Exception> Notices<E> noticesAs(
             @Nonnull final BiFunction<String, Throwable, E> ctor) {
-        return new Notices<>(new ArrayList<>(0), ctor);
+        return new Notices<>(new ArrayList<>(0), new LinkedHashMap<>(0), 0,
+                ctor, MAX_VALUE, false);
     }
 
     private Notices(final List<Exception> notices,
-            final BiFunction<String, Throwable, E> ctor) {
+            final Map<String, Integer> messages, final int size,
+            final BiFunction<String, Throwable, E> ctor, final int cap,
+            final boolean deduplicate) {
         this.notices = notices;
+        this.messages = messages;
+        this.size = size;
         this.ctor = ctor;
+        this.cap = cap;
+        this.deduplicate = deduplicate;
     }
 
     /**
@@ -101,7 +120,42 @@ public final class Notices<E extends Exception>
     @Nonnull
     public <F extends Exception> Notices<F> as(
             @Nonnull final BiFunction<String, Throwable, F> ctor) {
-        return new Notices<>(new ArrayList<>(notices), ctor);
+        return new Notices<>(new ArrayList<>(notices),
+                new LinkedHashMap<>(messages), size, ctor, cap, deduplicate);
+    }
+
+    /**
+     * Converts these notices into a new set keeping at most <var>cap</var>
+     * exceptions.  Further notices are counted and summarized, but their
+     * exceptions are discarded and not attached to the top-level exception.
+     * Existing exceptions beyond <var>cap</var> are discarded.
+     *
+     * @param cap the most exceptions to keep, always positive
+     *
+     * @return the same notices keeping at most <var>cap</var> exceptions,
+     * never missing
+     */
+    @Nonnull
+    public Notices<E> capped(final int cap) {
+        if (1 > cap)
+            throw new IllegalArgumentException("Non-positive cap: " + cap);
+        return new Notices<>(new ArrayList<>(
+                notices.subList(0, Math.min(cap, notices.size()))),
+                new LinkedHashMap<>(messages), size, ctor, cap, deduplicate);
+    }
+
+    /**
+     * Converts these notices into a new set keeping only the first exception
+     * for each distinct message.  Further notices with the same message are
+     * counted and summarized, but their exceptions are discarded.  Existing
+     * exceptions are kept as is.
+     *
+     * @return the same notices deduplicating by message, never missing
+     */
+    @Nonnull
+    public Notices<E> deduplicated() {
+        return new Notices<>(new ArrayList<>(notices),
+                new LinkedHashMap<>(messages), size, ctor, cap, true);
     }
 
     /**
@@ -110,20 +164,43 @@ public final class Notices<E extends Exception>
      * @return {@code true} if there are no notices
      */
     public boolean isEmpty() {
-        return notices.isEmpty();
+        return 0 == size;
     }
 
     /**
-     * Gets the count of notices.
+     * Gets the count of notices, including those whose exceptions were
+     * discarded by {@link #capped(int) capping} or {@link #deduplicated()
+     * deduplication}.
      *
      * @return the count of notices
      */
     public int size() {
-        return notices.size();
+        return size;
     }
 
     /**
-     * An unmodifiable iterator of notices in the same order they were added.
+     * Gets the count of notices whose exceptions were discarded by {@link
+     * #capped(int) capping} or {@link #deduplicated() deduplication}.
+     *
+     * @return the count of discarded notices
+     */
+    public int discarded() {
+        return size - notices.size();
+    }
+
+    /**
+     * Gets the count of distinct notice messages.  Exceptions without a
+     * message are not counted.
+     *
+     * @return the count of distinct messages
+     */
+    public int distinct() {
+        return messages.size();
+    }
+
+    /**
+     * An unmodifiable iterator of kept notices in the same order they were
+     * added.
      *
      * @return the notices iterator, never missing
      */
@@ -143,7 +220,10 @@ public final class Notices<E extends Exception>
      */
     public void add(@Nonnull @PrintFormat final String reason,
             final Object... args) {
-        final E cause = ctor.apply(format(reason, args), null);
+        final String message = format(reason, args);
+        if (!keep(message))
+            return;
+        final E cause = ctor.apply(message, null);
         discard(cause, 2); // 2 is the magic number: lambda, current
         notices.add(cause);
     }
@@ -156,6 +236,8 @@ public final class Notices<E extends Exception>
      * @param cause the exeption to note, never missing
      */
     public void add(@Nonnull final Exception cause) {
+        if (!keep(cause.getMessage()))
+            return;
         enhance(cause, 2, 1, currentThread().getStackTrace());
         notices.add(cause);
     }
@@ -214,20 +296,28 @@ public final class Notices<E extends Exception>
 
     /**
      * Creates a multi-line summary of notices, also used as the top-level
-     * exception message.
+     * exception message.  Each distinct message appears once, in the order
+     * first added, followed by its count if repeated.
      *
      * @return a summary of notices
      */
     @Nonnull
     public String summary() {
-        if (notices.isEmpty())
+        if (isEmpty())
             return "0 notice(s)";
         final String sep = lineSeparator() + "- ";
-        return notices.stream().
-                map(Throwable::getMessage).
-                filter(Objects::nonNull).
-                collect(joining(sep,
-                        format("%d notice(s):" + sep, notices.size()), ""));
+        final StringBuilder summary = new StringBuilder()
+                .append(size).append(" notice(s)");
+        if (0 < discarded())
+            summary.append(", ").append(discarded()).append(" discarded");
+        summary.append(':');
+        for (final Map.Entry<String, Integer> message : messages.entrySet()) {
+            summary.append(sep).append(message.getKey());
+            final int count = message.getValue();
+            if (1 < count)
+                summary.append(" (x").append(count).append(')');
+        }
+        return summary.toString();
     }
 
     @Nonnull
@@ -243,6 +333,13 @@ public final class Notices<E extends Exception>
         return e;
     }
 
+    private boolean keep(@Nullable final String message) {
+        ++size;
+        final boolean seen = null != message
+                && 1 < messages.merge(message, 1, Integer::sum);
+        return notices.size() < cap && !(deduplicate && seen);
+    }
+
     private static void discard(final Exception cause, final int n) {
         final List<StackTraceElement> frames = asList(cause.getStackTrace());
         cause.setStackTrace(frames.subList(n, frames.size())
@@ -3,15 +3,27 @@ package hm.binkley.util;
 import com.google.common.collect.Lists;
 
 import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Stream;
 
 import static hm.binkley.util.LinkedIterable.over;
+import static java.lang.invoke.MethodHandles.publicLookup;
+import static java.lang.invoke.MethodType.methodType;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static java.util.regex.Pattern.compile;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.StreamSupport.stream;
 
@@ -21,6 +33,17 @@ import static java.util.stream.StreamSupport.stream;
  * <p>
  * It does not modify exception messages or suppressed exceptions, only an exception and its causal
  * chain.
+ * <p>
+ * Focusers are built for use on every logged exception: {@link
+ * #ignoreClassNames(List) class name patterns} are combined into a single
+ * regex where they compile together, {@link
+ * #ignoreClassNamePrefixes(String...) class name prefixes} are matched with
+ * a prefix trie, and {@link #cached(int) cached} focusers remember verdicts
+ * for frames already seen.  Causal chains shorter than
+ * {@link #PARALLEL_THRESHOLD} are focused sequentially.
+ * <p>
+ * Focusers may also {@link #capture(int) capture} focused stacks directly, filtering frames as
+ * the stack is walked rather than after a full stack trace is materialized.
  *
  * @param <E> the exception type
  *
@@ -28,8 +51,11 @@ import static java.util.stream.StreamSupport.stream;
  */
 public final class StackTraceFocuser<E extends Throwable>
         implements Function<E, E> {
-    private static final List<Pattern> defaultClassNameIgnores = asList(compile("^java\\."),
-            compile("^javax\\."), compile("^sun\\."), compile("^com\\.sun\\."));
+    /** The causal chain length from which chains are focused in parallel. */
+    public static final int PARALLEL_THRESHOLD = 16;
+    private static final String[] defaultClassNamePrefixes = {"java.", "javax.", "sun.",
+            "com.sun."};
+    private static final Pattern backreference = compile("\\\\([1-9]|k<)");
     private final Predicate<StackTraceElement> ignore;
 
     /**
@@ -44,11 +70,31 @@ public final class StackTraceFocuser<E extends Throwable>
     @Nonnull
     public static <E extends Throwable> StackTraceFocuser<E> ignoreClassNames(
             @Nonnull final List<Pattern> classNameIgnores) {
+        final Pattern combined = combined(classNameIgnores);
+        if (null != combined)
+            return new StackTraceFocuser<>(singletonList(ignoreClassName(combined)));
         return new StackTraceFocuser<>(classNameIgnores.stream().
                 map(StackTraceFocuser::ignoreClassName).
                 collect(toList()));
     }
 
+    /**
+     * Creates a new {@code StackTraceFocuser} for the given list of <var>classNamePrefixes</var>,
+     * matched with a prefix trie rather than regexen.
+     *
+     * @param classNamePrefixes the class name prefixes to ignore, never missing
+     * @param <E> the exception type
+     *
+     * @return thew new {@code StackTraceFocuser}, never missing
+     */
+    @Nonnull
+    public static <E extends Throwable> StackTraceFocuser<E> ignoreClassNamePrefixes(
+            @Nonnull final String... classNamePrefixes) {
+        final PrefixTrie prefixes = new PrefixTrie(classNamePrefixes);
+        return new StackTraceFocuser<>(
+                singletonList(frame -> prefixes.matches(frame.getClassName())));
+    }
+
     /**
      * Creates a new, default {@code StackTraceFocuser} ignoring frames from the JDK.
      *
@@ -58,7 +104,7 @@ public final class StackTraceFocuser<E extends Throwable>
      */
     @Nonnull
     public static <E extends Throwable> StackTraceFocuser<E> ignoreJavaClasses() {
-        return ignoreClassNames(defaultClassNameIgnores);
+        return ignoreClassNamePrefixes(defaultClassNamePrefixes);
     }
 
     /**
@@ -86,18 +132,141 @@ public final class StackTraceFocuser<E extends Throwable>
         this(Lists.asList(first, rest));
     }
 
+    /**
+     * Creates a new {@code StackTraceFocuser} remembering whether to ignore up to
+     * <var>capacity</var> distinct frames, so that later exceptions through the same code skip
+     * the predicates.  Frames beyond <var>capacity</var> are tested each time.
+     *
+     * @param capacity the most frames to remember, always positive
+     *
+     * @return the new caching {@code StackTraceFocuser}, never missing
+     */
+    @Nonnull
+    public StackTraceFocuser<E> cached(final int capacity) {
+        if (1 > capacity)
+            throw new IllegalArgumentException("Non-positive capacity: " + capacity);
+        final Map<StackTraceElement, Boolean> verdicts = new ConcurrentHashMap<>();
+        return new StackTraceFocuser<>(singletonList(frame -> {
+            final Boolean verdict = verdicts.get(frame);
+            if (null != verdict)
+                return verdict;
+            final boolean ignored = !ignore.test(frame);
+            if (capacity > verdicts.size())
+                verdicts.put(frame, ignored);
+            return ignored;
+        }));
+    }
+
     @Override
     public E apply(final E e) {
-        stream(over(e, Objects::isNull, Throwable::getCause).spliterator(), true).
-                forEach(x -> {
-                    final List<StackTraceElement> found = asList(x.getStackTrace()).stream().
-                            filter(ignore).
-                            collect(toList());
-                    x.setStackTrace(found.toArray(new StackTraceElement[found.size()]));
-                });
+        final Iterable<Throwable> chain = over(e, Objects::isNull, Throwable::getCause);
+        int length = 0;
+        for (Throwable x = e; null != x && PARALLEL_THRESHOLD > length; x = x.getCause())
+            ++length;
+        if (PARALLEL_THRESHOLD > length)
+            chain.forEach(this::focus);
+        else
+            stream(chain.spliterator(), true).forEach(this::focus);
         return e;
     }
 
+    /**
+     * Captures the focused stack of the caller, keeping at most <var>maxDepth</var> frames.  On
+     * JDKs providing {@code java.lang.StackWalker}, frames are filtered lazily during the walk,
+     * which stops after <var>maxDepth</var> kept frames, so ignored or deeper frames are never
+     * materialized.  Otherwise falls back to filtering a fully captured stack.
+     *
+     * @param maxDepth the most frames to keep, always positive
+     *
+     * @return the focused frames of the caller, never missing
+     */
+    @Nonnull
+    public StackTraceElement[] capture(final int maxDepth) {
+        if (1 > maxDepth)
+            throw new IllegalArgumentException("Non-positive maximum depth: " + maxDepth);
+        if (Walker.AVAILABLE)
+            return Walker.walk(frames -> focused(frames, maxDepth));
+        return focused(asList(new Throwable().getStackTrace()).iterator(), maxDepth);
+    }
+
+    /**
+     * Replaces the stack trace of <var>exception</var> with the {@link #capture(int) focused
+     * stack} of the caller, keeping at most <var>maxDepth</var> frames.  The original stack trace
+     * of <var>exception</var> is discarded without being materialized as stack trace elements.
+     * <p>
+     * This does not save the cost of {@code fillInStackTrace}, which constructing
+     * <var>exception</var> already paid.  To avoid that cost, pass exceptions of a type
+     * overriding {@code fillInStackTrace} to do nothing.  Exceptions constructed with {@code
+     * writableStackTrace} false ignore {@code setStackTrace}, so are returned without stack.
+     *
+     * @param exception the exception to focus, never missing
+     * @param maxDepth the most frames to keep, always positive
+     * @param <X> the exception type
+     *
+     * @return <var>exception</var>, never missing
+     */
+    @Nonnull
+    public <X extends Throwable> X capture(@Nonnull final X exception, final int maxDepth) {
+        exception.setStackTrace(capture(maxDepth));
+        return exception;
+    }
+
+    private StackTraceElement[] focused(final Iterator<StackTraceElement> frames,
+            final int maxDepth) {
+        final List<StackTraceElement> found = new ArrayList<>(Math.min(maxDepth, 32));
+        boolean leading = true;
+        while (maxDepth > found.size() && frames.hasNext()) {
+            final StackTraceElement frame = frames.next();
+            // Skip the capturing frames themselves
+            if (leading && isFocuser(frame.getClassName()))
+                continue;
+            leading = false;
+            if (ignore.test(frame))
+                found.add(frame);
+        }
+        return found.toArray(new StackTraceElement[found.size()]);
+    }
+
+    /** Matches this class and its nested classes, not others sharing its name as prefix. */
+    private static boolean isFocuser(final String className) {
+        final String focuser = StackTraceFocuser.class.getName();
+        return className.startsWith(focuser) && (className.length() == focuser.length()
+                || '$' == className.charAt(focuser.length()));
+    }
+
+    private void focus(final Throwable x) {
+        final StackTraceElement[] frames = x.getStackTrace();
+        final StackTraceElement[] found = new StackTraceElement[frames.length];
+        int n = 0;
+        for (final StackTraceElement frame : frames)
+            if (ignore.test(frame))
+                found[n++] = frame;
+        if (frames.length != n)
+            x.setStackTrace(Arrays.copyOf(found, n));
+    }
+
+    /**
+     * Combines <var>patterns</var> into one alternation, or gives {@code null} to match each
+     * separately.  Combining renumbers groups, breaking backreferences, and patterns which
+     * compile alone may not together: duplicate group names, or an inline comment or unterminated
+     * {@code \Q} running on into the next pattern.
+     */
+    private static Pattern combined(final List<Pattern> patterns) {
+        if (patterns.isEmpty())
+            return null;
+        final int flags = patterns.get(0).flags();
+        if (!patterns.stream().
+                allMatch(p -> flags == p.flags() && !backreference.matcher(p.pattern()).find()))
+            return null;
+        try {
+            return compile(patterns.stream().
+                    map(className -> "(?:" + className.pattern() + ")").
+                    collect(joining("|")), flags);
+        } catch (final PatternSyntaxException e) {
+            return null;
+        }
+    }
+
     @Nonnull
     public static Predicate<StackTraceElement> ignoreClassName(@Nonnull final Pattern className) {
         return frame -> className.matcher(frame.getClassName()).find();
@@ -117,4 +286,108 @@ public final class StackTraceFocuser<E extends Throwable>
     public static Predicate<StackTraceElement> ignoreLineNumber(@Nonnull final Pattern lineNumber) {
         return frame -> lineNumber.matcher(String.valueOf(frame.getLineNumber())).find();
     }
+
+    /** Reaches {@code java.lang.StackWalker} without compiling against it. */
+    private static final class Walker {
+        private static final boolean AVAILABLE;
+        private static final Object walker;
+        private static final MethodHandle walk;
+        private static final MethodHandle element;
+
+        static {
+            Object instance = null;
+            MethodHandle walkHandle = null;
+            MethodHandle elementHandle = null;
+            try {
+                final Class<?> type = Class.forName("java.lang.StackWalker");
+                instance = type.getMethod("getInstance").invoke(null);
+                walkHandle = publicLookup().
+                        findVirtual(type, "walk", methodType(Object.class, Function.class));
+                elementHandle = publicLookup().
+                        findVirtual(Class.forName("java.lang.StackWalker$StackFrame"),
+                                "toStackTraceElement", methodType(StackTraceElement.class)).
+                        asType(methodType(StackTraceElement.class, Object.class));
+            } catch (final ReflectiveOperationException ignored) {
+                // Before JDK 9: fall back to full capture
+                instance = null;
+            }
+            AVAILABLE = null != instance;
+            walker = instance;
+            walk = walkHandle;
+            element = elementHandle;
+        }
+
+        private static StackTraceElement[] walk(
+                final Function<Iterator<StackTraceElement>, StackTraceElement[]> focused) {
+            final Function<Stream<?>, StackTraceElement[]> walking = frames -> focused.apply(
+                    frames.map(Walker::element).iterator());
+            try {
+                return (StackTraceElement[]) walk.invoke(walker, walking);
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable t) {
+                throw new Bug(t, "Stack walking threw checked exception");
+            }
+        }
+
+        private static StackTraceElement element(final Object frame) {
+            try {
+                return (StackTraceElement) element.invokeExact(frame);
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable t) {
+                throw new Bug(t, "Stack frame threw checked exception");
+            }
+        }
+    }
+
+    private static final class PrefixTrie {
+        private final Node root = new Node();
+
+        private PrefixTrie(final String... prefixes) {
+            for (final String prefix : prefixes) {
+                Node node = root;
+                for (int i = 0; i < prefix.length(); ++i)
+                    node = node.child(prefix.charAt(i));
+                node.terminal = true;
+            }
+        }
+
+        private boolean matches(final String name) {
+            Node node = root;
+            for (int i = 0; !node.terminal; ++i) {
+                if (name.length() == i)
+                    return false;
+                node = node.find(name.charAt(i));
+                if (null == node)
+                    return false;
+            }
+            return true;
+        }
+
+        private static final class Node {
+            private char[] keys = new char[0];
+            private Node[] children = new Node[0];
+            private boolean terminal;
+
+            private Node find(final char key) {
+                for (int i = 0; i < keys.length; ++i)
+                    if (key == keys[i])
+                        return children[i];
+                return null;
+            }
+
+            private Node child(final char key) {
+                final Node found = find(key);
+                if (null != found)
+                    return found;
+                final Node child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                keys[keys.length - 1] = key;
+                children = Arrays.copyOf(children, children.length + 1);
+                children[children.length - 1] = child;
+                return child;
+            }
+        }
+    }
 }
@@ -27,6 +27,8 @@
 
 package hm.binkley.util.function;
 
+import javax.annotation.Nonnull;
+import java.util.Map;
 import java.util.concurrent.CancellationException;
 import java.util.function.Function;
 
@@ -35,6 +37,11 @@ import static java.lang.Thread.currentThread;
 /**
  * {@code Defer} evaluates deferred execution for throwing versions of types for
  * Java 8 stream.
+ * <p>
+ * Wrapping checked exceptions costs a stack trace for each wrapper.  Where
+ * failures are routine, {@link #stackless()} wrappers skip the stack trace,
+ * and {@link #reusing(Map, Defer) reusing} wrappers preallocate a wrapper for
+ * well-known exception types.
  *
  * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
  * @todo Needs documentation.
@@ -43,6 +50,48 @@ import static java.lang.Thread.currentThread;
 @FunctionalInterface
 public interface Defer<D extends RuntimeException>
         extends Function<Exception, D> {
+    /**
+     * Creates a {@code Defer} wrapping checked exceptions in {@link
+     * DeferredException} without capturing a stack trace.  The wrapped
+     * exception keeps its own stack trace as cause.
+     *
+     * @return the stackless defer, never missing
+     */
+    @Nonnull
+    static Defer<DeferredException> stackless() {
+        return DeferredException::new;
+    }
+
+    /**
+     * Creates a {@code Defer} rethrowing the preallocated wrapper in
+     * <var>wrappers</var> for the exception type, or its nearest supertype,
+     * else wrapping with <var>otherwise</var>.  Preallocated wrappers are
+     * shared, so carry no cause: use them for routine failures where the
+     * exception type alone is enough, for example with {@link
+     * DeferredException#DeferredException(String) stackless} wrappers.
+     *
+     * @param wrappers the preallocated wrappers by exception type, never
+     * missing
+     * @param otherwise the defer for other exception types, never missing
+     * @param <D> the wrapping exception type
+     *
+     * @return the reusing defer, never missing
+     */
+    @Nonnull
+    static <D extends RuntimeException> Defer<D> reusing(
+            @Nonnull final Map<Class<? extends Exception>, ? extends D> wrappers,
+            @Nonnull final Defer<D> otherwise) {
+        return e -> {
+            for (Class<?> type = e.getClass(); Object.class != type;
+                    type = type.getSuperclass()) {
+                final D wrapper = wrappers.get(type);
+                if (null != wrapper)
+                    return wrapper;
+            }
+            return otherwise.apply(e);
+        };
+    }
+
     default <T, E extends Exception> T as(
             final ThrowingSupplier<? extends T, E> throwing) {
         try {
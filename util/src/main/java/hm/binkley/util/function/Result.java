@@ -0,0 +1,281 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@code Result} carries either a value or a checked failure, for pipelines
+ * where failures are routine and throwing is too costly.  Results from the
+ * {@code asResult()} adapters of the throwing functional types capture
+ * checked exceptions of type <var>E</var> as failures.  As with {@link Defer},
+ * unchecked exceptions propagate; and interrupts propagate as {@code
+ * InterruptedException}.
+ * <p>
+ * Failures pass unchanged through {@link #map(Function) map} and {@link
+ * #flatMap(Function) flatMap}, and are replaced by values through {@link
+ * #recover(Function) recover}.
+ *
+ * @param <T> the value type
+ * @param <E> the failure type
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class Result<T, E extends Exception> {
+    private final T value;
+    private final E failure;
+
+    /**
+     * Creates a new successful result.
+     *
+     * @param value the result value
+     * @param <T> the value type
+     * @param <E> the failure type
+     *
+     * @return the successful result, never missing
+     */
+    @Nonnull
+    public static <T, E extends Exception> Result<T, E> success(
+            @Nullable final T value) {
+        return new Result<>(value, null);
+    }
+
+    /**
+     * Creates a new failed result.
+     *
+     * @param failure the result failure, never missing
+     * @param <T> the value type
+     * @param <E> the failure type
+     *
+     * @return the failed result, never missing
+     */
+    @Nonnull
+    public static <T, E extends Exception> Result<T, E> failure(
+            @Nonnull final E failure) {
+        return new Result<>(null, requireNonNull(failure, "failure"));
+    }
+
+    /**
+     * Evaluates <var>supplier</var>, capturing a checked failure.
+     *
+     * @param supplier the throwing supplier, never missing
+     * @param <T> the value type
+     * @param <E> the failure type
+     *
+     * @return the result of <var>supplier</var>, never missing
+     *
+     * @throws InterruptedException if interrupted
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public static <T, E extends Exception> Result<T, E> of(
+            @Nonnull final ThrowingSupplier<? extends T, E> supplier)
+            throws InterruptedException {
+        try {
+            return success(supplier.get());
+        } catch (final RuntimeException | InterruptedException e) {
+            throw e;
+        } catch (final Exception e) {
+            // Only E remains, bar sneaky throws
+            return failure((E) e);
+        }
+    }
+
+    private Result(final T value, final E failure) {
+        this.value = value;
+        this.failure = failure;
+    }
+
+    /**
+     * Checks if this result is a success.
+     *
+     * @return {@code true} if a success
+     */
+    public boolean isSuccess() {
+        return null == failure;
+    }
+
+    /**
+     * Gets the value if a success, else throws the failure.
+     *
+     * @return the value
+     *
+     * @throws E if a failure
+     */
+    @Nullable
+    public T get()
+            throws E {
+        if (null != failure)
+            throw failure;
+        return value;
+    }
+
+    /**
+     * Gets the value if a success, else <var>other</var>.
+     *
+     * @param other the alternative value
+     *
+     * @return the value or <var>other</var>
+     */
+    @Nullable
+    public T orElse(@Nullable final T other) {
+        return null == failure ? value : other;
+    }
+
+    /**
+     * Gets the value, empty if a failure or if the value is missing.
+     *
+     * @return the optional value, never missing
+     */
+    @Nonnull
+    public Optional<T> value() {
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * Gets the failure, empty if a success.
+     *
+     * @return the optional failure, never missing
+     */
+    @Nonnull
+    public Optional<E> failure() {
+        return Optional.ofNullable(failure);
+    }
+
+    /**
+     * Maps a successful value with <var>mapper</var>, else keeps the
+     * failure.
+     *
+     * @param mapper the value mapping, never missing
+     * @param <U> the mapped value type
+     *
+     * @return the mapped result, never missing
+     */
+    @Nonnull
+    public <U> Result<U, E> map(
+            @Nonnull final Function<? super T, ? extends U> mapper) {
+        return null == failure ? success(mapper.apply(value)) : retyped();
+    }
+
+    /**
+     * Maps a successful value with throwing <var>mapper</var>, capturing a
+     * checked failure, else keeps the failure.
+     *
+     * @param mapper the throwing value mapping, never missing
+     * @param <U> the mapped value type
+     *
+     * @return the mapped result, never missing
+     *
+     * @throws InterruptedException if interrupted
+     */
+    @Nonnull
+    public <U> Result<U, E> tryMap(
+            @Nonnull final ThrowingFunction<? super T, ? extends U, E> mapper)
+            throws InterruptedException {
+        return null == failure ? Result.<U, E>of(() -> mapper.apply(value)) : retyped();
+    }
+
+    /**
+     * Maps a successful value with <var>mapper</var> to a new result, else
+     * keeps the failure.
+     *
+     * @param mapper the result mapping, never missing
+     * @param <U> the mapped value type
+     *
+     * @return the mapped result, never missing
+     */
+    @Nonnull
+    public <U> Result<U, E> flatMap(
+            @Nonnull final Function<? super T, Result<U, E>> mapper) {
+        return null == failure ? requireNonNull(mapper.apply(value)) : retyped();
+    }
+
+    /**
+     * Replaces a failure with a value from <var>recovery</var>, else keeps
+     * the success.
+     *
+     * @param recovery the failure recovery, never missing
+     *
+     * @return the recovered result, never missing
+     */
+    @Nonnull
+    public Result<T, E> recover(
+            @Nonnull final Function<? super E, ? extends T> recovery) {
+        return null == failure ? this : success(recovery.apply(failure));
+    }
+
+    /**
+     * Maps a failure with <var>mapper</var>, else keeps the success.
+     *
+     * @param mapper the failure mapping, never missing
+     * @param <F> the mapped failure type
+     *
+     * @return the mapped result, never missing
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public <F extends Exception> Result<T, F> mapFailure(
+            @Nonnull final Function<? super E, ? extends F> mapper) {
+        return null == failure ? (Result<T, F>) this
+                : failure(mapper.apply(failure));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Result))
+            return false;
+        final Result<?, ?> that = (Result<?, ?>) o;
+        return Objects.equals(value, that.value) && Objects
+                .equals(failure, that.failure);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(value, failure);
+    }
+
+    @Override
+    public String toString() {
+        return null == failure ? "Success(" + value + ")"
+                : "Failure(" + failure + ")";
+    }
+
+    /** Failures hold no value, so are safely any value type. */
+    @SuppressWarnings("unchecked")
+    private <U> Result<U, E> retyped() {
+        return (Result<U, E>) this;
+    }
+}
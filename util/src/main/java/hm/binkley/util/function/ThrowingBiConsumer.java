@@ -27,6 +27,15 @@ public interface ThrowingBiConsumer<T, U, E extends Exception> {
         };
     }
 
+    /** Creates a function capturing checked failures as results. */
+    @Nonnull
+    default ThrowingBiFunction<T, U, Result<Void, E>, RuntimeException> asResult() {
+        return (t, u) -> Result.<Void, E>of(() -> {
+            accept(t, u);
+            return null;
+        });
+    }
+
     /** Creates a facade {@code BiConsumer} wrapping this throwing one. */
     default <D extends RuntimeException> BiConsumer<T, U> asBiConsumer(final Defer<D> defer) {
         return (t, u) -> defer.as(() -> accept(t, u));
@@ -26,6 +26,12 @@ public interface ThrowingBiFunction<T, U, R, E extends Exception> {
         return (T t, U u) -> after.apply(apply(t, u));
     }
 
+    /** Creates a function capturing checked failures as results. */
+    @Nonnull
+    default ThrowingBiFunction<T, U, Result<R, E>, RuntimeException> asResult() {
+        return (t, u) -> Result.<R, E>of(() -> apply(t, u));
+    }
+
     /** Creates a facade {@code Function} wrapping this throwing one. */
     default <D extends RuntimeException> BiFunction<T, U, R> asBiFunction(final Defer<D> defer) {
         return (u, v) -> defer.as(() -> apply(u, v));
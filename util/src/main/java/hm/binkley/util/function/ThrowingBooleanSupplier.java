@@ -1,5 +1,6 @@
 package hm.binkley.util.function;
 
+import javax.annotation.Nonnull;
 import java.util.function.BooleanSupplier;
 
 /**
@@ -16,6 +17,12 @@ public interface ThrowingBooleanSupplier<E extends Exception> {
     boolean getAsBoolean()
             throws E, InterruptedException;
 
+    /** Creates a supplier capturing checked failures as results. */
+    @Nonnull
+    default ThrowingSupplier<Result<Boolean, E>, RuntimeException> asResult() {
+        return () -> Result.<Boolean, E>of(this::getAsBoolean);
+    }
+
     /** Creates a facade {@code BooleanSupplier} wrapping this throwing one. */
     default <D extends RuntimeException> BooleanSupplier asBooleanSupplier(final Defer<D> defer) {
         return () -> defer.as(this);
@@ -26,6 +26,15 @@ public interface ThrowingConsumer<T, E extends Exception> {
         };
     }
 
+    /** Creates a function capturing checked failures as results. */
+    @Nonnull
+    default ThrowingFunction<T, Result<Void, E>, RuntimeException> asResult() {
+        return t -> Result.<Void, E>of(() -> {
+            accept(t);
+            return null;
+        });
+    }
+
     /** Creates a facade {@code Consumer} wrapping this throwing one. */
     default <D extends RuntimeException> Consumer<T> asConsumer(final Defer<D> defer) {
         return t -> defer.as(() -> accept(t));
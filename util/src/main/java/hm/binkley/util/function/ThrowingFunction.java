@@ -37,6 +37,12 @@ public interface ThrowingFunction<T, R, E extends Exception> {
         return t -> t;
     }
 
+    /** Creates a function capturing checked failures as results. */
+    @Nonnull
+    default ThrowingFunction<T, Result<R, E>, RuntimeException> asResult() {
+        return t -> Result.<R, E>of(() -> apply(t));
+    }
+
     /** Creates a facade {@code Function} wrapping this throwing one. */
     default <D extends RuntimeException> Function<T, R> asFunction(
             final Defer<D> defer) {
@@ -1,5 +1,6 @@
 package hm.binkley.util.function;
 
+import javax.annotation.Nonnull;
 import java.util.function.LongSupplier;
 
 /**
@@ -16,6 +17,12 @@ public interface ThrowingLongSupplier<E extends Exception> {
     long getAsLong()
             throws E, InterruptedException;
 
+    /** Creates a supplier capturing checked failures as results. */
+    @Nonnull
+    default ThrowingSupplier<Result<Long, E>, RuntimeException> asResult() {
+        return () -> Result.<Long, E>of(this::getAsLong);
+    }
+
     /** Creates a facade {@code LongSupplier} wrapping this throwing one. */
     default <D extends RuntimeException> LongSupplier asLongSupplier(final Defer<D> defer) {
         return () -> defer.as(this);
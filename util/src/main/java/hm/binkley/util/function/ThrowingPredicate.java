@@ -43,6 +43,12 @@ public interface ThrowingPredicate<T, E extends Exception> {
         return null == targetRef ? Objects::isNull : targetRef::equals;
     }
 
+    /** Creates a function capturing checked failures as results. */
+    @Nonnull
+    default ThrowingFunction<T, Result<Boolean, E>, RuntimeException> asResult() {
+        return t -> Result.<Boolean, E>of(() -> test(t));
+    }
+
     /** Creates a facade {@code Predicate} wrapping this throwing one. */
     default <D extends RuntimeException> Predicate<T> asPredicate(
             final Defer<D> defer) {
@@ -1,5 +1,7 @@
 package hm.binkley.util.function;
 
+import javax.annotation.Nonnull;
+
 /**
  * {@code ThrowingRunnable} is a <em>throwing</em> look-a=like of {@link Runnable}.  It cannot be a
  * {@code Runnable} as it throws.  Otherwise it is a faithful reproduction.
@@ -13,6 +15,15 @@ public interface ThrowingRunnable<E extends Exception> {
     void run()
             throws E, InterruptedException;
 
+    /** Creates a supplier capturing checked failures as results. */
+    @Nonnull
+    default ThrowingSupplier<Result<Void, E>, RuntimeException> asResult() {
+        return () -> Result.<Void, E>of(() -> {
+            run();
+            return null;
+        });
+    }
+
     /** Creates a facade {@code Runnable} wrapping this throwing one. */
     default <D extends RuntimeException> Runnable asRunnable(final Defer<D> defer) {
         return () -> defer.as(this);
@@ -1,5 +1,6 @@
 package hm.binkley.util.function;
 
+import javax.annotation.Nonnull;
 import java.util.function.Supplier;
 
 /**
@@ -16,6 +17,12 @@ public interface ThrowingSupplier<T, E extends Exception> {
     T get()
             throws E, InterruptedException;
 
+    /** Creates a supplier capturing checked failures as results. */
+    @Nonnull
+    default ThrowingSupplier<Result<T, E>, RuntimeException> asResult() {
+        return () -> Result.of(this);
+    }
+
     /** Creates a facade {@code Supplier} wrapping this throwing one. */
     default <D extends RuntimeException> Supplier<T> asSupplier(final Defer<D> defer) {
         return () -> defer.as(this);
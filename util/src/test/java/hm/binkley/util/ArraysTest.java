@@ -0,0 +1,118 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util;
+
+import hm.binkley.util.Arrays.Bytes;
+import org.junit.Test;
+
+import static hm.binkley.util.Arrays.MAX_RETAINED_CAPACITY;
+import static hm.binkley.util.Arrays.cat;
+import static hm.binkley.util.Arrays.threadBytes;
+import static hm.binkley.util.Arrays.threadInts;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@code ArraysTest} tests {@link Arrays}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class ArraysTest {
+    @Test
+    public void shouldCatElements() {
+        assertThat(cat(new String[]{"a"}, "b", "c"),
+                is(arrayContaining("a", "b", "c")));
+    }
+
+    @Test
+    public void shouldCatArrays() {
+        assertThat(cat(new String[]{"a"}, new String[]{"b"},
+                new String[]{"c", "d"}),
+                is(arrayContaining("a", "b", "c", "d")));
+    }
+
+    @Test
+    public void shouldKeepRuntimeTypeOfFirstArray() {
+        assertThat(cat(new Integer[]{1}, new Integer[]{2}, new Integer[]{3})
+                .getClass(), is(equalTo(Integer[].class)));
+    }
+
+    @Test
+    public void shouldReturnSoleArray() {
+        final String[] sole = {"a"};
+
+        assertThat(cat(sole), is(sameInstance(sole)));
+    }
+
+    @Test
+    public void shouldCatBytes() {
+        assertThat(cat(new byte[]{1}, new byte[]{2, 3}, new byte[0]),
+                is(equalTo(new byte[]{1, 2, 3})));
+    }
+
+    @Test
+    public void shouldCatInts() {
+        assertThat(cat(new int[]{1}, new int[]{2, 3}, new int[]{4}),
+                is(equalTo(new int[]{1, 2, 3, 4})));
+    }
+
+    @Test
+    public void shouldAppendBytes() {
+        assertThat(threadBytes().append(new byte[]{1, 2})
+                        .append(new byte[]{3, 4, 5}, 1, 2).toArray(),
+                is(equalTo(new byte[]{1, 2, 4, 5})));
+    }
+
+    @Test
+    public void shouldAppendInts() {
+        assertThat(threadInts().append(new int[]{1, 2})
+                        .append(new int[]{3}).toArray(),
+                is(equalTo(new int[]{1, 2, 3})));
+    }
+
+    @Test
+    public void shouldReuseThreadBuffer() {
+        final Bytes bytes = threadBytes().append(new byte[]{1});
+
+        assertThat(threadBytes(), is(sameInstance(bytes)));
+        assertThat(bytes.size(), is(0));
+    }
+
+    @Test
+    public void shouldReleaseLargeStorageWhenCleared() {
+        final Bytes bytes = threadBytes()
+                .append(new byte[MAX_RETAINED_CAPACITY + 1]);
+
+        assertThat(bytes.clear().buffer().length,
+                is(lessThanOrEqualTo(MAX_RETAINED_CAPACITY)));
+    }
+}
@@ -32,14 +32,26 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import static hm.binkley.util.LinkedIterable.SPLITERATOR_BATCH_UNIT;
+import static hm.binkley.util.LinkedIterable.memoized;
 import static hm.binkley.util.LinkedIterable.over;
+import static hm.binkley.util.LinkedIterable.prefetching;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static java.util.stream.StreamSupport.stream;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -68,6 +80,90 @@ public class LinkedIterableTest {
         assertThat(over(0, terminate, traverse), contains(0, 1, 2));
     }
 
+    @Test
+    public void shouldStreamInParallelInOrder() {
+        final int n = 10_000;
+        assertThat(stream(over(0, t -> n == t, t -> t + 1).spliterator(), true).
+                collect(toList()), is(equalTo(range(0, n).boxed().collect(toList()))));
+    }
+
+    @Test
+    public void shouldSplitInBatches() {
+        final Spliterator<Integer> spliterator = over(0, t -> 1_000 == t, t -> t + 1).
+                spliterator();
+
+        assertThat(spliterator.trySplit().estimateSize(),
+                is(equalTo((long) SPLITERATOR_BATCH_UNIT)));
+    }
+
+    @Test
+    public void shouldSplitBalancedWithEstimate() {
+        final Spliterator<Integer> spliterator = over(0, t -> 1_000 == t, t -> t + 1, 1_000).
+                spliterator();
+
+        assertThat(spliterator.trySplit().estimateSize(), is(equalTo(500L)));
+        assertThat(spliterator.estimateSize(), is(equalTo(500L)));
+    }
+
+    @Test
+    public void shouldNotSplitWhenEmpty() {
+        assertThat(over(Objects::isNull, identity()).spliterator().trySplit(),
+                is(nullValue()));
+    }
+
+    @Test
+    public void shouldTraverseOnceWhenMemoized() {
+        final AtomicInteger traversals = new AtomicInteger();
+        final Iterable<Integer> memoized = memoized(0, t -> 3 == t, t -> {
+            traversals.incrementAndGet();
+            return t + 1;
+        });
+        memoized.forEach(t -> {});
+
+        assertThat(memoized, contains(0, 1, 2));
+        assertThat(traversals.get(), is(3));
+    }
+
+    @Test
+    public void shouldRetainOnlyLeadingTraversalsWhenMemoized() {
+        final AtomicInteger traversals = new AtomicInteger();
+        final Iterable<Integer> memoized = memoized(0, t -> 3 == t, t -> {
+            traversals.incrementAndGet();
+            return t + 1;
+        }, 1);
+        memoized.forEach(t -> {});
+
+        assertThat(memoized, contains(0, 1, 2));
+        assertThat(traversals.get(), is(5));
+    }
+
+    @Test
+    public void shouldHaveManyWhenPrefetching() {
+        final ExecutorService threads = newSingleThreadExecutor();
+        try {
+            assertThat(prefetching(0, t -> 3 == t, t -> t + 1, threads, 2),
+                    contains(0, 1, 2));
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldHaveNoneWhenPrefetching() {
+        assertThat(prefetching(null, Objects::isNull, identity(), Runnable::run, 2),
+                is(emptyIterable()));
+    }
+
+    @Test
+    public void shouldBubbleOutExceptionsWhenPrefetching() {
+        final String message = "Unexpected";
+        thrown.expect(RuntimeException.class);
+        thrown.expectMessage(message);
+
+        prefetching(0, t -> false, t -> { throw new RuntimeException(message); }, Runnable::run,
+                2).forEach(t -> {});
+    }
+
     @Test
     public void shouldBubbleOutExceptions() {
         final String message = "Unexpected";
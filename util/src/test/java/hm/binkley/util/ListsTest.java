@@ -0,0 +1,212 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static hm.binkley.util.Lists.doubleList;
+import static hm.binkley.util.Lists.intList;
+import static hm.binkley.util.Lists.list;
+import static hm.binkley.util.Lists.longList;
+import static hm.binkley.util.Lists.parallelForEachPartition;
+import static hm.binkley.util.Lists.partition;
+import static hm.binkley.util.Lists.partitionBySize;
+import static hm.binkley.util.Lists.partitionByWeight;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@code ListsTest} tests {@link Lists}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class ListsTest {
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void shouldPartitionEvenly() {
+        assertThat(partition(asList(1, 2, 3, 4, 5), 2),
+                is(equalTo(partitions(new int[]{1, 2, 3}, new int[]{4, 5}))));
+    }
+
+    @Test
+    public void shouldPartitionBySize() {
+        assertThat(partitionBySize(asList(1, 2, 3, 4, 5), 2),
+                is(equalTo(partitions(new int[]{1, 2}, new int[]{3, 4}, new int[]{5}))));
+    }
+
+    @Test
+    public void shouldPartitionBySizeWithoutRandomAccess() {
+        assertThat(partitionBySize(new LinkedList<>(asList(1, 2, 3, 4, 5)), 3),
+                is(equalTo(partitions(new int[]{1, 2, 3}, new int[]{4, 5}))));
+    }
+
+    @Test
+    public void shouldPartitionEmptyBySize() {
+        assertThat(partitionBySize(emptyList(), 3), is(empty()));
+    }
+
+    @Test
+    public void shouldPartitionByHugeSize() {
+        assertThat(partitionBySize(asList(1, 2, 3), Integer.MAX_VALUE),
+                is(equalTo(partitions(new int[]{1, 2, 3}))));
+    }
+
+    @Test
+    public void shouldRejectNonPositiveSize() {
+        thrown.expect(IllegalArgumentException.class);
+
+        partitionBySize(asList(1, 2, 3), 0);
+    }
+
+    @Test
+    public void shouldPartitionByWeight() {
+        assertThat(partitionByWeight(asList(4, 1, 1, 1, 1), 2, Integer::longValue),
+                is(equalTo(partitions(new int[]{4}, new int[]{1, 1, 1, 1}))));
+    }
+
+    @Test
+    public void shouldPartitionByWeightWhenWeightless() {
+        assertThat(partitionByWeight(asList(1, 2, 3, 4), 2, item -> 0L),
+                is(equalTo(partitions(new int[]{1, 2}, new int[]{3, 4}))));
+    }
+
+    @Test
+    public void shouldPartitionByWeightWithLeadingEmptyBucket() {
+        assertThat(partitionByWeight(asList(100, 1, 1, 1), 3, Integer::longValue),
+                is(equalTo(partitions(new int[]{}, new int[]{100}, new int[]{1, 1, 1}))));
+    }
+
+    @Test
+    public void shouldRejectNegativeWeight() {
+        thrown.expect(IllegalArgumentException.class);
+
+        partitionByWeight(asList(1, 2, 3), 2, item -> -1L);
+    }
+
+    @Test
+    public void shouldProcessEachPartition() {
+        final AtomicInteger sum = new AtomicInteger();
+        parallelForEachPartition(asList(1, 2, 3, 4, 5), new ForkJoinPool(2),
+                bucket -> bucket.forEach(sum::addAndGet));
+
+        assertThat(sum.get(), is(15));
+    }
+
+    @Test
+    public void shouldRethrowFromPartition() {
+        thrown.expect(IllegalStateException.class);
+
+        parallelForEachPartition(asList(1, 2, 3), new ForkJoinPool(2),
+                bucket -> {
+                    throw new IllegalStateException();
+                });
+    }
+
+    @Test
+    public void shouldComputeIntItems() {
+        assertThat(intList(i -> i * 2, () -> 3), contains(0, 2, 4));
+    }
+
+    @Test
+    public void shouldStreamIntItemsInParallel() {
+        assertThat(intList(i -> i, () -> 1_000).intStream().parallel().sum(),
+                is(499_500));
+    }
+
+    @Test
+    public void shouldStreamLongItems() {
+        assertThat(longList(i -> i, () -> 4).longStream().sum(), is(6L));
+    }
+
+    @Test
+    public void shouldStreamDoubleItems() {
+        assertThat(doubleList(i -> i / 2.0, () -> 4).doubleStream().sum(),
+                is(3.0));
+    }
+
+    @Test
+    public void shouldSplitEvenlyBySize() {
+        final Spliterator<Integer> spliterator = list(i -> i, () -> 10).
+                spliterator();
+
+        assertThat(spliterator.trySplit().estimateSize(), is(5L));
+        assertThat(spliterator.estimateSize(), is(5L));
+    }
+
+    @Test
+    public void shouldCacheItems() {
+        final AtomicInteger computed = new AtomicInteger();
+        final List<Integer> cached = list(i -> {
+            computed.incrementAndGet();
+            return i;
+        }, () -> 3, 3);
+        cached.forEach(i -> {});
+
+        assertThat(cached, contains(0, 1, 2));
+        assertThat(computed.get(), is(3));
+    }
+
+    @Test
+    public void shouldEvictCachedItemsSharingSlot() {
+        final AtomicInteger computed = new AtomicInteger();
+        final List<Integer> cached = list(i -> {
+            computed.incrementAndGet();
+            return i;
+        }, () -> 3, 1);
+        cached.get(0);
+        cached.get(1);
+        cached.get(0);
+
+        assertThat(computed.get(), is(3));
+    }
+
+    /** Avoids generic varargs, as with {@code asList(asList(1), asList(2))}. */
+    private static List<List<Integer>> partitions(final int[]... partitions) {
+        return Stream.of(partitions).
+                map(partition -> IntStream.of(partition).boxed().collect(toList())).
+                collect(toList());
+    }
+}
@@ -27,6 +27,8 @@
 
 package hm.binkley.util;
 
+import org.hamcrest.FeatureMatcher;
+import org.hamcrest.Matcher;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
@@ -34,6 +36,7 @@ import org.junit.rules.ExpectedException;
 
 import static hm.binkley.junit.SuppressedExceptionMatcher.hasSuppressed;
 import static hm.binkley.util.Notices.notices;
+import static java.lang.System.lineSeparator;
 import static java.lang.Thread.currentThread;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsString;
@@ -137,6 +140,59 @@ public final class NoticesTest {
                 is(equalTo("A bear is 3")));
     }
 
+    @Test
+    public void shouldCountPastCap() {
+        final Notices<RuntimeException> notices = notices().capped(1);
+        notices.add("Hi, mom!");
+        notices.add("Hi, dad!");
+
+        assertThat(notices.size(), is(2));
+        assertThat(notices.discarded(), is(1));
+    }
+
+    @Test
+    public void shouldKeepOnlyCappedExceptions() {
+        final Notices<RuntimeException> notices = notices().capped(1);
+        notices.add("Hi, mom!");
+        notices.add("Hi, dad!");
+
+        thrown.expect(RuntimeException.class);
+        thrown.expectMessage(allOf(containsString("2 notice(s), 1 discarded"),
+                containsString("Hi, mom!"), containsString("Hi, dad!")));
+        thrown.expect(hasSuppressedCount(1));
+
+        notices.proceedOrFail();
+    }
+
+    @Test
+    public void shouldRejectNonPositiveCap() {
+        thrown.expect(IllegalArgumentException.class);
+
+        notices().capped(0);
+    }
+
+    @Test
+    public void shouldDeduplicateByMessage() {
+        final Notices<RuntimeException> notices = notices().deduplicated();
+        notices.add("Hi, mom!");
+        notices.add("Hi, %s!", "mom");
+        notices.add("Hi, dad!");
+
+        assertThat(notices.size(), is(3));
+        assertThat(notices.distinct(), is(2));
+        assertThat(notices.discarded(), is(1));
+    }
+
+    @Test
+    public void shouldSummarizeRepeatedMessagesOnce() {
+        final Notices<RuntimeException> notices = notices();
+        notices.add("Hi, mom!");
+        notices.add("Hi, mom!");
+
+        assertThat(notices.summary(),
+                is(equalTo("2 notice(s):" + lineSeparator() + "- Hi, mom! (x2)")));
+    }
+
     @Ignore("Broken by JDK 1.8.0_60")
     @Test
     public void shouldFixStackTraceForTopLevelException() {
@@ -185,6 +241,16 @@ public final class NoticesTest {
         }
     }
 
+    private static Matcher<Throwable> hasSuppressedCount(final int count) {
+        return new FeatureMatcher<Throwable, Integer>(is(count),
+                "suppressed count", "suppressed count") {
+            @Override
+            protected Integer featureValueOf(final Throwable actual) {
+                return actual.getSuppressed().length;
+            }
+        };
+    }
+
     private static final class Foobar
             extends Exception {
         Foobar() {}
@@ -29,14 +29,21 @@ package hm.binkley.util;
 
 import org.junit.Test;
 
+import static hm.binkley.util.StackTraceFocuser.PARALLEL_THRESHOLD;
 import static hm.binkley.util.StackTraceFocuser.ignoreClassName;
+import static hm.binkley.util.StackTraceFocuser.ignoreClassNamePrefixes;
+import static hm.binkley.util.StackTraceFocuser.ignoreClassNames;
 import static hm.binkley.util.StackTraceFocuser.ignoreFileName;
 import static hm.binkley.util.StackTraceFocuser.ignoreJavaClasses;
 import static hm.binkley.util.StackTraceFocuser.ignoreLineNumber;
 import static hm.binkley.util.StackTraceFocuser.ignoreMethodName;
+import static java.util.Arrays.asList;
 import static java.util.regex.Pattern.compile;
 import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -149,6 +156,123 @@ public class StackTraceFocuserTest {
                 ignoreFileName(compile("Sam"))), nonFiltered);
     }
 
+    @Test
+    public void shouldIgnoreCombinedClassNames() {
+        final Throwable x = new Throwable();
+        final StackTraceElement nonFiltered = new StackTraceElement("lotro.Bilbo", "smokes",
+                "Bilbo.java", 5);
+        x.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("windfola.Frodo", "lives", "Frodo.java", 3),
+                new StackTraceElement("lotro.Sam", "cooks", "Sam.java", 11), nonFiltered});
+
+        assertFramesRemaining(x,
+                ignoreClassNames(asList(compile("^windfola\\."), compile("Sam$"))),
+                nonFiltered);
+    }
+
+    @Test
+    public void shouldIgnoreClassNamesWithSameGroupNames() {
+        final Throwable x = new Throwable();
+        final StackTraceElement nonFiltered = new StackTraceElement("lotro.Bilbo", "smokes",
+                "Bilbo.java", 5);
+        x.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("windfola.Frodo", "lives", "Frodo.java", 3),
+                new StackTraceElement("lotro.Sam", "cooks", "Sam.java", 11), nonFiltered});
+
+        assertFramesRemaining(x,
+                ignoreClassNames(asList(compile("^(?<hobbit>windfola)\\."),
+                        compile("(?<hobbit>Sam)$"))), nonFiltered);
+    }
+
+    @Test
+    public void shouldIgnoreClassNamesWithComments() {
+        final Throwable x = new Throwable();
+        final StackTraceElement nonFiltered = new StackTraceElement("lotro.Bilbo", "smokes",
+                "Bilbo.java", 5);
+        x.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("windfola.Frodo", "lives", "Frodo.java", 3),
+                new StackTraceElement("lotro.Sam", "cooks", "Sam.java", 11), nonFiltered});
+
+        assertFramesRemaining(x,
+                ignoreClassNames(asList(compile("(?x)^windfola\\. # the horse"),
+                        compile("Sam$"))), nonFiltered);
+    }
+
+    @Test
+    public void shouldIgnoreClassNamePrefixes() {
+        final Throwable x = new Throwable();
+        final StackTraceElement nonWindfola = new StackTraceElement("windfolaX.Bilbo", "smokes",
+                "Bilbo.java", 5);
+        x.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("windfola.Frodo", "lives", "Frodo.java", 3), nonWindfola});
+
+        assertFramesRemaining(x, ignoreClassNamePrefixes("windfola."), nonWindfola);
+    }
+
+    @Test
+    public void shouldIgnoreWhenCached() {
+        final StackTraceElement frodo = new StackTraceElement("java.lang.Frodo", "lives",
+                "Frodo.java", 3);
+        final StackTraceElement nonJava = new StackTraceElement("lotro.Bilbo", "smokes",
+                "Bilbo.java", 5);
+        final StackTraceFocuser<Throwable> focuser = StackTraceFocuser.<Throwable>
+                ignoreJavaClasses().cached(1);
+        for (int i = 0; i < 2; ++i) {
+            final Throwable x = new Throwable();
+            x.setStackTrace(new StackTraceElement[]{frodo, nonJava});
+
+            assertFramesRemaining(x, focuser, nonJava);
+        }
+    }
+
+    @Test
+    public void shouldFocusLongCausalChains() {
+        final StackTraceElement nonJava = new StackTraceElement("lotro.Bilbo", "smokes",
+                "Bilbo.java", 5);
+        final Throwable x = new Throwable();
+        Throwable last = x;
+        for (int i = 0; i < PARALLEL_THRESHOLD; ++i) {
+            last.setStackTrace(new StackTraceElement[]{
+                    new StackTraceElement("java.lang.Frodo", "lives", "Frodo.java", 3),
+                    nonJava});
+            final Throwable cause = new Throwable();
+            last.initCause(cause);
+            last = cause;
+        }
+        last.setStackTrace(new StackTraceElement[]{nonJava});
+
+        StackTraceFocuser.<Throwable>ignoreJavaClasses().apply(x);
+        for (Throwable cause = x; null != cause; cause = cause.getCause())
+            assertThat(cause.getStackTrace(), is(arrayContaining(nonJava)));
+    }
+
+    @Test
+    public void shouldCaptureCallerFirst() {
+        final StackTraceElement[] frames = StackTraceFocuser.<Throwable>ignoreJavaClasses().
+                capture(1);
+
+        assertThat(frames.length, is(1));
+        assertThat(frames[0].getClassName(), is(equalTo(getClass().getName())));
+        assertThat(frames[0].getMethodName(), is(equalTo("shouldCaptureCallerFirst")));
+    }
+
+    @Test
+    public void shouldCaptureWithoutIgnoredFrames() {
+        for (final StackTraceElement frame : StackTraceFocuser.<Throwable>ignoreJavaClasses().
+                capture(Integer.MAX_VALUE))
+            assertThat(frame.getClassName(), not(startsWith("java.")));
+    }
+
+    @Test
+    public void shouldCaptureIntoException() {
+        final IllegalStateException x = StackTraceFocuser.<Throwable>ignoreJavaClasses().
+                capture(new IllegalStateException(), 2);
+
+        assertThat(x.getStackTrace().length, is(2));
+        assertThat(x.getStackTrace()[0].getMethodName(),
+                is(equalTo("shouldCaptureIntoException")));
+    }
+
     private static void assertFramesRemaining(final Throwable x,
             final StackTraceFocuser<Throwable> focuser, final StackTraceElement... remaining) {
         assertThat(focuser.apply(x).getStackTrace(), is(arrayContaining(remaining)));
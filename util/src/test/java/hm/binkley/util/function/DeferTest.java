@@ -0,0 +1,98 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.function;
+
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static hm.binkley.util.function.Defer.reusing;
+import static hm.binkley.util.function.Defer.stackless;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * {@code DeferTest} tests {@link Defer}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class DeferTest {
+    @Test
+    public void shouldWrapWithoutStackTrace() {
+        try {
+            stackless().as(
+                    (ThrowingRunnable<IOException>) () -> {throw new IOException();});
+            fail();
+        } catch (final DeferredException e) {
+            assertThat(e.getStackTrace(), is(emptyArray()));
+            assertThat(e.getCause(), is(instanceOf(IOException.class)));
+        }
+    }
+
+    @Test
+    public void shouldReusePreallocatedWrapper() {
+        final DeferredException io = new DeferredException("I/O failed");
+        final Map<Class<? extends Exception>, DeferredException> wrappers
+                = new HashMap<>();
+        wrappers.put(IOException.class, io);
+        try {
+            reusing(wrappers, stackless()).as(
+                    (ThrowingRunnable<IOException>) () -> {
+                        throw new FileNotFoundException();
+                    });
+            fail();
+        } catch (final DeferredException e) {
+            assertThat(e, is(sameInstance(io)));
+        }
+    }
+
+    @Test
+    public void shouldWrapOtherExceptionsWhenReusing() {
+        final DeferredException io = new DeferredException("I/O failed");
+        final Map<Class<? extends Exception>, DeferredException> wrappers
+                = new HashMap<>();
+        wrappers.put(IOException.class, io);
+        try {
+            reusing(wrappers, stackless()).as(
+                    (ThrowingRunnable<Exception>) () -> {
+                        throw new Exception();
+                    });
+            fail();
+        } catch (final DeferredException e) {
+            assertThat(e, is(not(sameInstance(io))));
+        }
+    }
+}
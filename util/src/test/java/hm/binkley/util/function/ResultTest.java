@@ -0,0 +1,124 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ *
+ * Anyone is free to copy, modify, publish, use, compile, sell, or
+ * distribute this software, either in source code form or as a compiled
+ * binary, for any purpose, commercial or non-commercial, and by any
+ * means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors
+ * of this software dedicate any and all copyright interest in the
+ * software to the public domain. We make this dedication for the benefit
+ * of the public at large and to the detriment of our heirs and
+ * successors. We intend this dedication to be an overt act of
+ * relinquishment in perpetuity of all present and future rights to this
+ * software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to <http://unlicense.org/>.
+ */
+
+package hm.binkley.util.function;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static hm.binkley.util.function.Result.failure;
+import static hm.binkley.util.function.Result.success;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * {@code ResultTest} tests {@link Result}.
+ *
+ * @author <a href="mailto:binkley@alumni.rice.edu">B. K. Oxley (binkley)</a>
+ */
+public final class ResultTest {
+    private static final IOException FAILURE = new IOException("Failed");
+
+    @Test
+    public void shouldCaptureValue()
+            throws InterruptedException {
+        final ThrowingFunction<String, Integer, IOException> length
+                = String::length;
+        assertThat(length.asResult().apply("abc"), is(equalTo(success(3))));
+    }
+
+    @Test
+    public void shouldCaptureFailure()
+            throws InterruptedException {
+        final ThrowingConsumer<String, IOException> fails = s -> {
+            throw FAILURE;
+        };
+        assertThat(fails.asResult().apply("abc").failure(),
+                is(equalTo(Optional.of(FAILURE))));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldPropagateUncheckedExceptions()
+            throws InterruptedException {
+        final ThrowingRunnable<IOException> fails = () -> {
+            throw new IllegalStateException();
+        };
+        fails.asResult().get();
+    }
+
+    @Test
+    public void shouldMapValue() {
+        assertThat(Result.<String, IOException>success("abc").map(String::length),
+                is(equalTo(success(3))));
+    }
+
+    @Test
+    public void shouldSkipMapForFailure() {
+        final Result<String, IOException> failed = failure(FAILURE);
+        assertThat(failed.map(s -> {
+            throw new AssertionError();
+        }).failure().get(), is(sameInstance(FAILURE)));
+    }
+
+    @Test
+    public void shouldCaptureFailureInTryMap()
+            throws InterruptedException {
+        assertThat(Result.<String, IOException>success("abc").tryMap(s -> {
+            throw FAILURE;
+        }), is(equalTo(failure(FAILURE))));
+    }
+
+    @Test
+    public void shouldFlatMapValue() {
+        final Result<Integer, IOException> result = Result
+                .<String, IOException>success("abc")
+                .flatMap(s -> failure(FAILURE));
+        assertThat(result, is(equalTo(failure(FAILURE))));
+    }
+
+    @Test
+    public void shouldRecoverFailure() {
+        final Result<String, IOException> failed = failure(FAILURE);
+        assertThat(failed.recover(Throwable::getMessage),
+                is(equalTo(success("Failed"))));
+    }
+
+    @Test
+    public void shouldThrowFailureOnGet() {
+        try {
+            Result.<String, IOException>failure(FAILURE).get();
+            fail();
+        } catch (final IOException e) {
+            assertThat(e, is(sameInstance(FAILURE)));
+        }
+    }
+}